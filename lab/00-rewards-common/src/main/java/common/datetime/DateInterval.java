@@ -18,4 +18,14 @@ public class DateInterval {
 	public SimpleDate getEnd() {
 		return end;
 	}
+
+	/**
+	 * Returns true if the date is within this interval, including its start and end dates.
+	 * @param date the date
+	 * @return true or false
+	 */
+	public boolean contains(SimpleDate date) {
+		int epochDay = date.getEpochDay();
+		return start.getEpochDay() <= epochDay && epochDay <= end.getEpochDay();
+	}
 }
@@ -1,50 +1,49 @@
 package common.datetime;
 
 import java.io.Serializable;
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.TimeZone;
 import java.text.SimpleDateFormat;
 
 /**
- * A simple wrapper around a calendar for working with dates like 12/29/1977. Does not consider time.
+ * A simple date like 12/29/1977. Does not consider time.
+ * <p>
+ * Held as the number of days since 1/1/1970 (the "epoch day") in the default time zone, so comparing and hashing dates
+ * is integer arithmetic. {@link #today()} hands out the same instance until midnight.
  */
 public class SimpleDate implements Serializable {
 
-	private static final long serialVersionUID = 2285962420279644602L;
+	private static final long serialVersionUID = -4520716285413587390L;
 
-	private GregorianCalendar base;
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
 
 	/**
-	 * Create a new simple date.
+	 * Today's date, shared until it rolls over at midnight.
+	 */
+	private static volatile Today today;
+
+	private final int epochDay;
+
+	/**
+	 * Midnight of this date in milliseconds since 1970, or {@link Long#MIN_VALUE} until first needed.
+	 */
+	private transient long midnight = Long.MIN_VALUE;
+
+	/**
+	 * Create a new simple date. Like a lenient calendar, rolls over out of range values; e.g. month 13 is January of
+	 * the next year.
 	 * @param month the month
 	 * @param day the day
 	 * @param year the year
 	 */
 	public SimpleDate(int month, int day, int year) {
-		init(new GregorianCalendar(year, month - 1, day));
-	}
-
-	SimpleDate(long time) {
-		GregorianCalendar cal = new GregorianCalendar();
-		cal.setTimeInMillis(time);
-		init(cal);
+		this(LocalDate.of(year, 1, 1).plusMonths(month - 1).plusDays(day - 1).toEpochDay());
 	}
 
-	private SimpleDate() {
-		init(new GregorianCalendar());
-	}
-
-	private void init(GregorianCalendar cal) {
-		this.base = trimToDays(cal);
-	}
-
-	private GregorianCalendar trimToDays(GregorianCalendar cal) {
-		cal.set(Calendar.HOUR_OF_DAY, 0);
-		cal.set(Calendar.MINUTE, 0);
-		cal.set(Calendar.SECOND, 0);
-		cal.set(Calendar.MILLISECOND, 0);
-		return cal;
+	private SimpleDate(long epochDay) {
+		this.epochDay = Math.toIntExact(epochDay);
 	}
 
 	/**
@@ -52,20 +51,41 @@ public class SimpleDate implements Serializable {
 	 * @return this simple date as a Date
 	 */
 	public Date asDate() {
-		return base.getTime();
+		return new Date(inMilliseconds());
+	}
+
+	/**
+	 * Returns this simple date as a <code>java.sql.Date</code>, for binding to a DATE column without going through a
+	 * calendar.
+	 * @return this simple date as a SQL date
+	 */
+	public java.sql.Date asSqlDate() {
+		return new java.sql.Date(inMilliseconds());
 	}
 
 	/**
 	 * Returns this date in milliseconds since 1970.
-	 * @return
+	 * @return midnight of this date in the default time zone, in milliseconds since 1970
 	 */
 	public long inMilliseconds() {
-		return asDate().getTime();
+		long midnight = this.midnight;
+		if (midnight == Long.MIN_VALUE) {
+			midnight = LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+			this.midnight = midnight;
+		}
+		return midnight;
+	}
+
+	/**
+	 * Returns the number of days from 1/1/1970 to this date.
+	 */
+	public int getEpochDay() {
+		return epochDay;
 	}
 
 	public int compareTo(Object date) {
 		SimpleDate other = (SimpleDate) date;
-		return asDate().compareTo(other.asDate());
+		return Integer.compare(epochDay, other.epochDay);
 	}
 
 	public boolean equals(Object day) {
@@ -73,18 +93,24 @@ public class SimpleDate implements Serializable {
 			return false;
 		}
 		SimpleDate other = (SimpleDate) day;
-		return (base.equals(other.base));
+		return epochDay == other.epochDay;
 	}
 
 	public int hashCode() {
-		return 29 * base.hashCode();
+		return epochDay;
 	}
 
 	/**
 	 * Returns todays date. A convenient static factory method.
 	 */
 	public static SimpleDate today() {
-		return new SimpleDate();
+		long now = System.currentTimeMillis();
+		Today today = SimpleDate.today;
+		if (today == null || now < today.from || now >= today.until) {
+			today = new Today(now);
+			SimpleDate.today = today;
+		}
+		return today.date;
 	}
 
 	/**
@@ -102,12 +128,35 @@ public class SimpleDate implements Serializable {
 	 * @return the time as a SimpleDate
 	 */
 	public static SimpleDate valueOf(long time) {
-		return new SimpleDate(time);
+		return new SimpleDate(Math.floorDiv(time + TimeZone.getDefault().getOffset(time), MILLIS_PER_DAY));
 	}
-	
+
 	@Override
 	public String toString() {
-        return new SimpleDateFormat().format(base.getTime());
-    }
+		return new SimpleDateFormat().format(asDate());
+	}
+
+	private Object readResolve() {
+		// the transient midnight comes back as zero, a valid time; start over with it unknown
+		return new SimpleDate((long) epochDay);
+	}
+
+	/**
+	 * Today's date and the time range it is today for.
+	 */
+	private static class Today {
+
+		final SimpleDate date;
+
+		final long from;
+
+		final long until;
+
+		Today(long now) {
+			date = valueOf(now);
+			from = date.inMilliseconds();
+			until = new SimpleDate(date.epochDay + 1L).inMilliseconds();
+		}
+	}
 
-}
\ No newline at end of file
+}
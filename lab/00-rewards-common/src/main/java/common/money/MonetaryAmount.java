@@ -3,22 +3,60 @@ package common.money;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.Embeddable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 
 /**
  * A representation of money.
- * 
+ *
+ * Amounts are kept as a number of cents in a <code>long</code>, so adding amounts or taking a percentage of an amount
+ * needs no BigDecimal arithmetic; the BigDecimal value is only created when asked for. Amounts too large for a
+ * <code>long</code> fall back to a BigDecimal. Either way the results are exactly those of BigDecimal arithmetic
+ * rounded to two decimal places with {@link RoundingMode#HALF_EVEN}.
+ *
  * A value object. Immutable.
  */
 @Embeddable
+@Access(AccessType.FIELD)
 public class MonetaryAmount implements Serializable {
 
 	private static final long serialVersionUID = -3734467432803577280L;
 
-	private BigDecimal value;
+	/**
+	 * Serialized as before: a single BigDecimal "value".
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("value", BigDecimal.class) };
+
+	/**
+	 * Marks an amount whose cents do not fit in a <code>long</code>.
+	 */
+	private static final long INFLATED = Long.MIN_VALUE;
+
+	/**
+	 * The largest number of cents converted to a double exactly.
+	 */
+	private static final long MAX_EXACT_DOUBLE_CENTS = 1L << 53;
+
+	private static final MonetaryAmount ZERO = new MonetaryAmount(0L);
+
+	/**
+	 * The amount in cents, or {@link #INFLATED} if only {@link #value} holds it.
+	 */
+	private transient long cents;
+
+	/**
+	 * The amount with scale 2; created lazily from {@link #cents}.
+	 */
+	private transient BigDecimal value;
 
 	/**
 	 * Create a new monetary amount from the specified value.
@@ -37,12 +75,19 @@ public class MonetaryAmount implements Serializable {
 		initValue(BigDecimal.valueOf(value));
 	}
 
+	private MonetaryAmount(long cents) {
+		this.cents = cents;
+	}
+
 	@SuppressWarnings("unused")
 	private MonetaryAmount() {
 	}
 
 	private void initValue(BigDecimal value) {
 		this.value = value.setScale(2, RoundingMode.HALF_EVEN);
+		BigInteger unscaled = this.value.unscaledValue();
+		// Long.MIN_VALUE cents fit, but become INFLATED, which is just as correct
+		this.cents = unscaled.bitLength() < 64 ? unscaled.longValue() : INFLATED;
 	}
 
 	/**
@@ -66,7 +111,7 @@ public class MonetaryAmount implements Serializable {
 	 * Returns the zero (0.00) monetary amount.
 	 */
 	public static MonetaryAmount zero() {
-		return new MonetaryAmount(0);
+		return ZERO;
 	}
 
 	/**
@@ -75,7 +120,14 @@ public class MonetaryAmount implements Serializable {
 	 * @return the sum
 	 */
 	public MonetaryAmount add(MonetaryAmount amount) {
-		return new MonetaryAmount(value.add(amount.value));
+		if (cents != INFLATED && amount.cents != INFLATED) {
+			long sum = cents + amount.cents;
+			// overflow if both operands have a sign different from the sum's
+			if (((cents ^ sum) & (amount.cents ^ sum)) >= 0 && sum != INFLATED) {
+				return new MonetaryAmount(sum);
+			}
+		}
+		return new MonetaryAmount(asBigDecimal().add(amount.asBigDecimal()));
 	}
 
 	/**
@@ -84,7 +136,14 @@ public class MonetaryAmount implements Serializable {
 	 * @return the difference
 	 */
 	public MonetaryAmount subtract(MonetaryAmount amount) {
-		return new MonetaryAmount(value.subtract(amount.value));
+		if (cents != INFLATED && amount.cents != INFLATED) {
+			long difference = cents - amount.cents;
+			// overflow if the operands have different signs and the difference's differs from this amount's
+			if (((cents ^ amount.cents) & (cents ^ difference)) >= 0 && difference != INFLATED) {
+				return new MonetaryAmount(difference);
+			}
+		}
+		return new MonetaryAmount(asBigDecimal().subtract(amount.asBigDecimal()));
 	}
 
 	/**
@@ -93,7 +152,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the product
 	 */
 	public MonetaryAmount multiplyBy(BigDecimal amount) {
-		return new MonetaryAmount(value.multiply(amount));
+		return new MonetaryAmount(asBigDecimal().multiply(amount));
 	}
 
 	/**
@@ -102,7 +161,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the quotient
 	 */
 	public BigDecimal divide(MonetaryAmount amount) {
-		return value.divide(amount.value);
+		return asBigDecimal().divide(amount.asBigDecimal());
 	}
 
 	/**
@@ -111,7 +170,7 @@ public class MonetaryAmount implements Serializable {
 	 * @return the quotient
 	 */
 	public MonetaryAmount divideBy(BigDecimal amount) {
-		return new MonetaryAmount(value.divide(amount));
+		return new MonetaryAmount(asBigDecimal().divide(amount));
 	}
 
 	/**
@@ -120,7 +179,12 @@ public class MonetaryAmount implements Serializable {
 	 * @return the percentage amount
 	 */
 	public MonetaryAmount multiplyBy(Percentage percentage) {
-		return new MonetaryAmount(value.multiply(percentage.asBigDecimal()));
+		long hundredths = percentage.asHundredths();
+		// a percentage is at most 100 hundredths, so the product cannot overflow below this bound
+		if (cents != INFLATED && Math.abs(cents) <= Long.MAX_VALUE / 100) {
+			return new MonetaryAmount(divideByOneHundredHalfEven(cents * hundredths));
+		}
+		return new MonetaryAmount(asBigDecimal().multiply(percentage.asBigDecimal()));
 	}
 
 	/**
@@ -129,7 +193,10 @@ public class MonetaryAmount implements Serializable {
 	 * @return true or false
 	 */
 	public boolean greaterThan(MonetaryAmount amount) {
-		return value.compareTo(amount.value) > 0;
+		if (cents != INFLATED && amount.cents != INFLATED) {
+			return cents > amount.cents;
+		}
+		return asBigDecimal().compareTo(amount.asBigDecimal()) > 0;
 	}
 
 	/**
@@ -137,7 +204,11 @@ public class MonetaryAmount implements Serializable {
 	 * @return this amount as a double
 	 */
 	public double asDouble() {
-		return value.doubleValue();
+		if (cents != INFLATED && Math.abs(cents) <= MAX_EXACT_DOUBLE_CENTS) {
+			// both operands are exact, so the division rounds just like BigDecimal.doubleValue()
+			return cents / 100.0;
+		}
+		return asBigDecimal().doubleValue();
 	}
 
 	/**
@@ -146,22 +217,71 @@ public class MonetaryAmount implements Serializable {
 	 */
 	@JsonValue
 	public BigDecimal asBigDecimal() {
+		BigDecimal value = this.value;
+		if (value == null) {
+			// racy but harmless: every thread creates an equal value
+			value = BigDecimal.valueOf(cents, 2);
+			this.value = value;
+		}
 		return value;
 	}
 
+	/**
+	 * Returns the value for storage in the underlying column. The value is mapped through these accessors because
+	 * the cents are the authoritative field.
+	 */
+	@Access(AccessType.PROPERTY)
+	protected BigDecimal getValue() {
+		return asBigDecimal();
+	}
+
+	/**
+	 * Sets the value from the underlying column.
+	 */
+	protected void setValue(BigDecimal value) {
+		initValue(value);
+	}
+
 	public boolean equals(Object o) {
 		if (!(o instanceof MonetaryAmount)) {
 			return false;
 		}
-		return value.equals(((MonetaryAmount) o).value);
+		MonetaryAmount amount = (MonetaryAmount) o;
+		if (cents != INFLATED || amount.cents != INFLATED) {
+			// an amount fits in cents or not regardless of how it was created
+			return cents == amount.cents;
+		}
+		return value.equals(amount.value);
 	}
 
 	public int hashCode() {
-		return value.hashCode();
+		return cents != INFLATED ? Long.hashCode(cents) : value.hashCode();
 	}
 
 	public String toString() {
-		return "$" + value.toString();
+		return "$" + asBigDecimal().toString();
+	}
+
+	/**
+	 * Divides by 100, rounding to the nearest integer and ties to the even one, like
+	 * <code>setScale(2, RoundingMode.HALF_EVEN)</code> does for a value of scale 4.
+	 */
+	private static long divideByOneHundredHalfEven(long value) {
+		long quotient = value / 100;
+		long remainder = Math.abs(value % 100);
+		if (remainder > 50 || (remainder == 50 && (quotient & 1) != 0)) {
+			quotient += value < 0 ? -1 : 1;
+		}
+		return quotient;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.putFields().put("value", asBigDecimal());
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		initValue((BigDecimal) in.readFields().get("value", null));
 	}
 
-}
\ No newline at end of file
+}
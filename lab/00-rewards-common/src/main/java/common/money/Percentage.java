@@ -10,6 +10,10 @@ import java.math.RoundingMode;
 
 /**
  * A percentage. Represented as a decimal value with scale 2 between 0.00 and 1.00.
+ * <p>
+ * There are only 101 such values, so the factory methods hand out shared instances from a table instead of creating
+ * new ones, and arithmetic is done on the integer number of hundredths. Instances created with a constructor or by an
+ * ORM are equal to the shared ones, just not identical.
  * 
  * A value object. Immutable.
  */
@@ -18,8 +22,26 @@ public class Percentage implements Serializable {
 
 	private static final long serialVersionUID = 8077279865855620752L;
 
+	private static final int ONE_HUNDRED_PERCENT = 100;
+
+	/**
+	 * The shared instances, indexed by their value in hundredths.
+	 */
+	private static final Percentage[] PERCENTAGES = new Percentage[ONE_HUNDRED_PERCENT + 1];
+
+	static {
+		for (int hundredths = 0; hundredths <= ONE_HUNDRED_PERCENT; hundredths++) {
+			PERCENTAGES[hundredths] = new Percentage(BigDecimal.valueOf(hundredths, 2));
+		}
+	}
+
 	private BigDecimal value;
 
+	/**
+	 * The value in hundredths, e.g. 8 for 8%; -1 until first needed.
+	 */
+	private transient int hundredths = -1;
+
 	/**
 	 * Create a new percentage from the specified value. Value must be between 0 and 1. For example, value .45
 	 * represents 45%. If the value has more than two digits past the decimal point it will be rounded up. For example,
@@ -69,25 +91,43 @@ public class Percentage implements Serializable {
 			int index = string.lastIndexOf('%');
 			string = string.substring(0, index);
 		}
+		if (percent && string.length() <= 9 && isWholeNumber(string)) {
+			// e.g. "8%" - the common case needs no BigDecimal
+			return ofHundredths(Integer.parseInt(string));
+		}
 		BigDecimal value = new BigDecimal(string);
 		if (percent) {
 			value = value.divide(new BigDecimal(100));
 		}
-		return new Percentage(value);
+		return PERCENTAGES[new Percentage(value).asHundredths()];
+	}
+
+	/**
+	 * Returns the percentage of the given number of hundredths.
+	 * @param hundredths the percentage in hundredths, e.g. 8 for 8%
+	 * @return the shared percentage object
+	 * @throws IllegalArgumentException if the value is not between 0 and 100
+	 */
+	public static Percentage ofHundredths(int hundredths) {
+		if (hundredths < 0 || hundredths > ONE_HUNDRED_PERCENT) {
+			throw new IllegalArgumentException("Percentage value must be between 0 and 1; your value was "
+					+ BigDecimal.valueOf(hundredths, 2));
+		}
+		return PERCENTAGES[hundredths];
 	}
 
 	/**
 	 * Returns zero percent.
 	 */
 	public static Percentage zero() {
-		return new Percentage(0);
+		return PERCENTAGES[0];
 	}
 
 	/**
 	 * Returns one hundred percent.
 	 */
 	public static Percentage oneHundred() {
-		return new Percentage(1);
+		return PERCENTAGES[ONE_HUNDRED_PERCENT];
 	}
 
 	/**
@@ -97,7 +137,7 @@ public class Percentage implements Serializable {
 	 * @throws IllegalArgumentException if the new percentage exceeds 1
 	 */
 	public Percentage add(Percentage percentage) throws IllegalArgumentException {
-		return new Percentage(value.add(percentage.value));
+		return ofHundredths(asHundredths() + percentage.asHundredths());
 	}
 
 	/**
@@ -118,18 +158,56 @@ public class Percentage implements Serializable {
 		return value;
 	}
 
+	/**
+	 * Return this percentage in hundredths, e.g. 8 for 8%. Useful for exact integer arithmetic.
+	 * @return this percentage in hundredths, between 0 and 100
+	 */
+	public int asHundredths() {
+		int hundredths = this.hundredths;
+		if (hundredths < 0) {
+			// the value always has scale 2
+			hundredths = value.unscaledValue().intValue();
+			this.hundredths = hundredths;
+		}
+		return hundredths;
+	}
+
 	public boolean equals(Object o) {
 		if (!(o instanceof Percentage)) {
 			return false;
 		}
-		return value.equals(((Percentage) o).value);
+		return asHundredths() == ((Percentage) o).asHundredths();
 	}
 
 	public int hashCode() {
-		return value.hashCode();
+		return asHundredths();
+	}
+
+	/**
+	 * Returns true if the string consists of decimal digits only.
+	 */
+	private static boolean isWholeNumber(String string) {
+		if (string.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Replaces a deserialized percentage by the shared instance. Deserialization runs no field initializer, so the
+	 * transient hundredths are 0 here, not -1: they are computed from the value instead.
+	 */
+	private Object readResolve() {
+		return PERCENTAGES[value.unscaledValue().intValue()];
 	}
 
 	public String toString() {
-		return value.multiply(new BigDecimal("100")).setScale(0) + "%";
+		return asHundredths() + "%";
 	}
 }
\ No newline at end of file
@@ -3,14 +3,19 @@ drop table T_ACCOUNT_CREDIT_CARD if exists;
 drop table T_ACCOUNT if exists;
 drop table T_RESTAURANT if exists;
 drop table T_REWARD if exists;
+drop table T_REWARD_SUBMISSION if exists;
+drop table T_SAVINGS_PENDING if exists;
 drop sequence S_REWARD_CONFIRMATION_NUMBER if exists;
 drop table DUAL_REWARD_CONFIRMATION_NUMBER if exists;
 
-create table T_ACCOUNT (ID integer identity primary key, NUMBER varchar(9), NAME varchar(50) not null, unique(NUMBER));
+create table T_ACCOUNT (ID integer identity primary key, NUMBER varchar(9), NAME varchar(50) not null, VERSION integer default 0 not null, unique(NUMBER));
 create table T_ACCOUNT_CREDIT_CARD (ID integer identity primary key, ACCOUNT_ID integer, NUMBER varchar(16), unique(ACCOUNT_ID, NUMBER));
-create table T_ACCOUNT_BENEFICIARY (ID integer identity primary key, ACCOUNT_ID integer, NAME varchar(50), ALLOCATION_PERCENTAGE decimal(3,2) not null, SAVINGS decimal(8,2) not null, unique(ACCOUNT_ID, NAME));
+create table T_ACCOUNT_BENEFICIARY (ID integer identity primary key, ACCOUNT_ID integer, NAME varchar(50), ALLOCATION_PERCENTAGE decimal(3,2) not null, SAVINGS decimal(8,2) not null, VERSION integer default 0 not null, unique(ACCOUNT_ID, NAME));
 create table T_RESTAURANT (ID integer identity primary key, MERCHANT_NUMBER varchar(10) not null, NAME varchar(80) not null, BENEFIT_PERCENTAGE decimal(3,2) not null, BENEFIT_AVAILABILITY_POLICY varchar(1) not null, unique(MERCHANT_NUMBER));
 create table T_REWARD (ID integer identity primary key, CONFIRMATION_NUMBER varchar(25) not null, REWARD_AMOUNT decimal(8,2) not null, REWARD_DATE date not null, ACCOUNT_NUMBER varchar(9) not null, DINING_AMOUNT decimal not null, DINING_MERCHANT_NUMBER varchar(10) not null, DINING_DATE date not null, unique(CONFIRMATION_NUMBER));
+create table T_REWARD_SUBMISSION (ID integer identity primary key, TICKET varchar(36) not null, STATUS varchar(10) not null, ATTEMPTS integer default 0 not null, DINING_AMOUNT decimal(8,2) not null, DINING_CREDIT_CARD_NUMBER varchar(16) not null, DINING_MERCHANT_NUMBER varchar(10) not null, DINING_DATE date not null, CONFIRMATION_NUMBER varchar(25), FAILURE varchar(250), OWNER varchar(36), LEASE_EXPIRES timestamp, unique(TICKET));
+create index IX_REWARD_SUBMISSION_STATUS on T_REWARD_SUBMISSION(STATUS, ID);
+create table T_SAVINGS_PENDING (ID integer identity primary key, ACCOUNT_ID integer not null, NAME varchar(50) not null, AMOUNT decimal(8,2) not null);
 
 create sequence S_REWARD_CONFIRMATION_NUMBER start with 1;
 create table DUAL_REWARD_CONFIRMATION_NUMBER (ZERO integer);
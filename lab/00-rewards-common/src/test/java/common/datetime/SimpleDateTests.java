@@ -2,14 +2,21 @@ package common.datetime;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 
 /**
- * Unit tests for the "Simple Date" wrapper around a Calendar that tracks
- * month/date/year only, with no provision for tracking time.
+ * Unit tests for the "Simple Date" that tracks month/date/year only, with no
+ * provision for tracking time.
  */
 public class SimpleDateTests {
 
@@ -39,4 +46,52 @@ public class SimpleDateTests {
 		SimpleDate today2 = SimpleDate.valueOf(time);
 		assertEquals(today, today2);
 	}
+
+	@Test
+	public void testTodayIsShared() {
+		assertSame(SimpleDate.today(), SimpleDate.today());
+	}
+
+	@Test
+	public void testSameDateAsCalendar() {
+		SimpleDate date = new SimpleDate(12, 29, 1977);
+		assertEquals(new GregorianCalendar(1977, Calendar.DECEMBER, 29).getTime(), date.asDate());
+		assertEquals(date.inMilliseconds(), date.asSqlDate().getTime());
+		assertEquals(new SimpleDate(1, 1, 1978), new SimpleDate(12, 32, 1977));
+		assertEquals(new SimpleDate(2, 1, 1978), new SimpleDate(14, 1, 1977));
+		assertEquals(new SimpleDate(12, 31, 1969), SimpleDate.valueOf(new SimpleDate(1, 1, 1970).inMilliseconds() - 1));
+	}
+
+	@Test
+	public void testCompareTo() {
+		SimpleDate date = new SimpleDate(12, 29, 1977);
+		assertTrue(date.compareTo(new SimpleDate(12, 30, 1977)) < 0);
+		assertTrue(date.compareTo(new SimpleDate(12, 28, 1977)) > 0);
+		assertEquals(0, date.compareTo(SimpleDate.valueOf(date.inMilliseconds() + 1000)));
+		assertEquals(date.hashCode(), SimpleDate.valueOf(date.asDate()).hashCode());
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		SimpleDate date = new SimpleDate(12, 29, 1977);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(date);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			SimpleDate copy = (SimpleDate) in.readObject();
+			assertEquals(date, copy);
+			assertEquals(date.inMilliseconds(), copy.inMilliseconds());
+		}
+	}
+
+	@Test
+	public void testDateIntervalContains() {
+		DateInterval interval = new DateInterval(new SimpleDate(12, 1, 1977), new SimpleDate(12, 31, 1977));
+		assertTrue(interval.contains(new SimpleDate(12, 1, 1977)));
+		assertTrue(interval.contains(new SimpleDate(12, 29, 1977)));
+		assertTrue(interval.contains(new SimpleDate(12, 31, 1977)));
+		assertFalse(interval.contains(new SimpleDate(11, 30, 1977)));
+		assertFalse(interval.contains(new SimpleDate(1, 1, 1978)));
+	}
 }
@@ -2,8 +2,15 @@ package common.money;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
 
 /**
  * Unit tests that make sure the MonetaryAmount class works in isolation.
@@ -58,4 +65,60 @@ public class MonetaryAmountTests {
 		MonetaryAmount amt = MonetaryAmount.valueOf(".1");
 		assertEquals(new BigDecimal(".10"), amt.asBigDecimal());
 	}
+
+	@Test
+	public void testMultiplyByPercentageRoundsHalfEven() {
+		// 0.50 * 5% = 0.025 rounds down to the even 0.02, 0.70 * 5% = 0.035 rounds up to the even 0.04
+		assertEquals(MonetaryAmount.valueOf("0.02"), MonetaryAmount.valueOf("0.50").multiplyBy(Percentage.valueOf("5%")));
+		assertEquals(MonetaryAmount.valueOf("0.04"), MonetaryAmount.valueOf("0.70").multiplyBy(Percentage.valueOf("5%")));
+		assertEquals(MonetaryAmount.valueOf("-0.02"), MonetaryAmount.valueOf("-0.50").multiplyBy(Percentage.valueOf("5%")));
+		assertEquals(MonetaryAmount.valueOf("-0.04"), MonetaryAmount.valueOf("-0.70").multiplyBy(Percentage.valueOf("5%")));
+	}
+
+	@Test
+	public void testSameResultsAsBigDecimalArithmetic() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			BigDecimal a = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 2);
+			BigDecimal b = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 2);
+			Percentage p = new Percentage(BigDecimal.valueOf(random.nextInt(101), 2));
+			MonetaryAmount amountA = new MonetaryAmount(a);
+			MonetaryAmount amountB = new MonetaryAmount(b);
+			assertEquals(a.add(b), amountA.add(amountB).asBigDecimal());
+			assertEquals(a.subtract(b), amountA.subtract(amountB).asBigDecimal());
+			assertEquals(a.multiply(p.asBigDecimal()).setScale(2, RoundingMode.HALF_EVEN),
+					amountA.multiplyBy(p).asBigDecimal());
+			assertEquals(a.compareTo(b) > 0, amountA.greaterThan(amountB));
+			assertEquals(a.doubleValue(), amountA.asDouble());
+		}
+	}
+
+	@Test
+	public void testAmountsBeyondCents() {
+		MonetaryAmount max = new MonetaryAmount(BigDecimal.valueOf(Long.MAX_VALUE, 2));
+		MonetaryAmount cent = MonetaryAmount.valueOf("0.01");
+		MonetaryAmount sum = max.add(cent);
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE, 2).add(new BigDecimal("0.01")), sum.asBigDecimal());
+		assertEquals(max, sum.subtract(cent));
+		assertTrue(sum.greaterThan(max));
+		assertEquals(new MonetaryAmount(sum.asBigDecimal()), sum);
+	}
+
+	@Test
+	public void testZero() {
+		assertEquals(MonetaryAmount.valueOf("0.00"), MonetaryAmount.zero());
+		assertEquals("$0.00", MonetaryAmount.zero().toString());
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		MonetaryAmount amount = MonetaryAmount.valueOf("8.25");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(amount);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertEquals(amount, in.readObject());
+		}
+	}
 }
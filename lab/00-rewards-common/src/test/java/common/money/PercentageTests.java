@@ -2,6 +2,15 @@ package common.money;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
 
 /**
  * Unit tests that make sure the Percentage class works in isolation.
@@ -38,4 +47,54 @@ public class PercentageTests {
 		Percentage p = new Percentage(.255555);
 		assertEquals("26%", p.toString());
 	}
+
+	@Test
+	public void testEqualPercentagesAreShared() {
+		assertSame(Percentage.valueOf("25%"), Percentage.valueOf("25%"));
+		assertSame(Percentage.valueOf("25%"), Percentage.valueOf("0.25"));
+		assertSame(Percentage.valueOf("25%"), Percentage.valueOf("12.5%").add(Percentage.valueOf("0.12")));
+		assertSame(Percentage.zero(), Percentage.ofHundredths(0));
+		assertSame(Percentage.oneHundred(), Percentage.valueOf("100%"));
+	}
+
+	@Test
+	public void testConstructedPercentageEqualsSharedOne() {
+		Percentage p = new Percentage(new BigDecimal("0.08"));
+		assertEquals(Percentage.valueOf("8%"), p);
+		assertEquals(Percentage.valueOf("8%").hashCode(), p.hashCode());
+		assertEquals(8, p.asHundredths());
+	}
+
+	@Test
+	public void testAdd() {
+		assertEquals(Percentage.oneHundred(), Percentage.valueOf("33%").add(Percentage.valueOf("67%")));
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("50%").add(Percentage.valueOf("51%")));
+	}
+
+	@Test
+	public void testOutOfRange() {
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("101%"));
+		assertThrows(IllegalArgumentException.class, () -> Percentage.valueOf("-1%"));
+		assertThrows(IllegalArgumentException.class, () -> Percentage.ofHundredths(101));
+		assertEquals(Percentage.valueOf("8%"), Percentage.valueOf("0008%"));
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		Percentage percentage = roundTrip(new Percentage(new BigDecimal("0.08")));
+		assertSame(Percentage.valueOf("8%"), percentage);
+		assertEquals(8, percentage.asHundredths());
+		assertEquals(MonetaryAmount.valueOf("8.00"), MonetaryAmount.valueOf("100.00").multiplyBy(percentage));
+		assertSame(Percentage.oneHundred(), roundTrip(Percentage.oneHundred()));
+	}
+
+	private static Percentage roundTrip(Percentage percentage) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(percentage);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (Percentage) in.readObject();
+		}
+	}
 }
@@ -2,6 +2,7 @@ package accounts;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import rewards.internal.account.Account;
 
@@ -28,6 +29,31 @@ public interface AccountManager {
 	 */
 	public List<Account> getAllAccounts();
 
+	/**
+	 * Get a page of accounts, ordered by id. The next page starts after the
+	 * id of the last account of this one ("keyset pagination"), so a page
+	 * costs the same however far into the accounts it is.
+	 * 
+	 * @param afterId
+	 *            only accounts with a higher id are returned; null for the
+	 *            first page
+	 * @param limit
+	 *            the maximum number of accounts to return
+	 * @return the accounts of the page, with their beneficiaries
+	 */
+	public List<Account> getAccounts(Long afterId, int limit);
+
+	/**
+	 * Passes all accounts in the system to the consumer in order of id, as
+	 * they are read. Unlike {@link #getAllAccounts()} the accounts are never
+	 * all in memory at once: an account may no longer be usable once the
+	 * consumer returns.
+	 * 
+	 * @param consumer
+	 *            receives each account, with its beneficiaries
+	 */
+	public void forEachAccount(Consumer<Account> consumer);
+
 	/**
 	 * Find an account by its number.
 	 * 
@@ -37,6 +63,30 @@ public interface AccountManager {
 	 */
 	public Account getAccount(Long id);
 
+	/**
+	 * Get the version of an account without loading it. The version changes
+	 * whenever the account or one of its beneficiaries changes, so it can
+	 * tell a client whether its copy of the account is still current.
+	 * 
+	 * @param id
+	 *            the account id
+	 * @return the version, or null if there is no such account
+	 */
+	public Long getAccountVersion(Long id);
+
+	/**
+	 * Get the version of a beneficiary of an account without loading it. The
+	 * version changes whenever the beneficiary changes, and when beneficiaries
+	 * are added to or removed from the account.
+	 * 
+	 * @param accountId
+	 *            the account id
+	 * @param beneficiaryName
+	 *            the name of the beneficiary
+	 * @return the version, or null if there is no such beneficiary
+	 */
+	public Long getBeneficiaryVersion(Long accountId, String beneficiaryName);
+
 	/**
 	 * Takes a transient account and persists it.
 	 * 
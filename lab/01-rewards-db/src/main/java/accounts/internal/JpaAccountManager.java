@@ -1,13 +1,19 @@
 package accounts.internal;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,8 +26,22 @@ import rewards.internal.account.Account;
 @Repository
 public class JpaAccountManager extends AbstractAccountManager {
 
+	/**
+	 * The number of rows fetched from the database at a time when streaming
+	 * accounts.
+	 */
+	public static final int FETCH_SIZE = 100;
+
+	/**
+	 * The default number of accounts fetched per query when loading many
+	 * accounts.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
 	private EntityManager entityManager;
 
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
 	/**
 	 * Creates a new JPA account manager.
 	 * <p>
@@ -36,23 +56,83 @@ public class JpaAccountManager extends AbstractAccountManager {
 		this.entityManager = entityManager;
 	}
 
+	/**
+	 * Sets the number of accounts fetched per query by
+	 * {@link #getAllAccounts()} and {@link #getAccounts(Long, int)}, which
+	 * bounds the IN clause of each query.
+	 * 
+	 * @param batchSize
+	 *            the batch size, defaults to {@link #DEFAULT_BATCH_SIZE}
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive; your value was " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
 	@Override
 	@Transactional(readOnly = true)
-	@SuppressWarnings("unchecked")
 	public List<Account> getAllAccounts() {
-		List<Account> l = entityManager.createQuery("select a from Account a LEFT JOIN FETCH a.beneficiaries")
+		List<Long> ids = entityManager.createQuery("select a.entityId from Account a order by a.entityId", Long.class)
 				.getResultList();
+		return fetchAccounts(ids);
+	}
 
-		// Use of "JOIN FETCH" produces duplicate accounts, and DISTINCT does
-		// not address this. So we have to filter it manually.
-		List<Account> result = new ArrayList<Account>();
+	@Override
+	@Transactional(readOnly = true)
+	public List<Account> getAccounts(Long afterId, int limit) {
+		// Limiting a query that fetches a collection would page in memory, so
+		// find the ids of the page first and then fetch their accounts
+		TypedQuery<Long> idQuery;
+		if (afterId == null) {
+			idQuery = entityManager.createQuery("select a.entityId from Account a order by a.entityId", Long.class);
+		} else {
+			idQuery = entityManager.createQuery(
+					"select a.entityId from Account a where a.entityId > :afterId order by a.entityId", Long.class)
+					.setParameter("afterId", afterId);
+		}
+		return fetchAccounts(idQuery.setMaxResults(limit).getResultList());
+	}
 
-		for (Account a : l) {
-			if (!result.contains(a))
-				result.add(a);
+	/**
+	 * Fetches the accounts with the given ids and their beneficiaries, in the
+	 * order of the ids, {@link #setBatchSize(int) batchSize} accounts per
+	 * query.
+	 */
+	private List<Account> fetchAccounts(List<Long> ids) {
+		// "JOIN FETCH" returns an account once per beneficiary, and DISTINCT
+		// does not address this. Within the persistence context these rows are
+		// the same object, so keep the first per id instead of comparing
+		// accounts with equals().
+		Map<Long, Account> accounts = new LinkedHashMap<Long, Account>(ids.size() * 4 / 3 + 1);
+		for (int from = 0; from < ids.size(); from += batchSize) {
+			List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+			List<Account> rows = entityManager.createQuery(
+					"select a from Account a LEFT JOIN FETCH a.beneficiaries where a.entityId in :ids order by a.entityId",
+					Account.class).setParameter("ids", batch).getResultList();
+			for (Account account : rows) {
+				accounts.putIfAbsent(account.getEntityId(), account);
+			}
 		}
+		return new ArrayList<Account>(accounts.values());
+	}
 
-		return result;
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachAccount(Consumer<Account> consumer) {
+		// Hibernate assembles each account from its consecutive rows, so the
+		// rows must be ordered by account
+		try (ScrollableResults results = entityManager.unwrap(Session.class)
+				.createQuery("select a from Account a LEFT JOIN FETCH a.beneficiaries order by a.entityId")
+				.setFetchSize(FETCH_SIZE).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+			while (results.next()) {
+				Account account = (Account) results.get(0);
+				consumer.accept(account);
+				// Keep the persistence context from growing with every account
+				entityManager.detach(account);
+			}
+		}
 	}
 
 	@Override
@@ -68,6 +148,34 @@ public class JpaAccountManager extends AbstractAccountManager {
 		return account;
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Long getAccountVersion(Long id) {
+		List<Object[]> versions = entityManager.createQuery("select a.version, coalesce(sum(b.version), 0) "
+				+ "from Account a LEFT JOIN a.beneficiaries b where a.entityId = :id group by a.version",
+				Object[].class).setParameter("id", id).getResultList();
+		return versions.isEmpty() ? null : version(versions.get(0));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Long getBeneficiaryVersion(Long accountId, String beneficiaryName) {
+		List<Object[]> versions = entityManager.createQuery("select a.version, b.version "
+				+ "from Account a JOIN a.beneficiaries b where a.entityId = :id and b.name = :name", Object[].class)
+				.setParameter("id", accountId).setParameter("name", beneficiaryName).getResultList();
+		return versions.isEmpty() ? null : version(versions.get(0));
+	}
+
+	/**
+	 * Combines the version of an account with the version(s) of its
+	 * beneficiaries. Adding or removing a beneficiary increments the account
+	 * version, and any other change increments the beneficiary versions, so the
+	 * combination never repeats.
+	 */
+	private static Long version(Object[] versions) {
+		return (((Number) versions[0]).longValue() << 32) + ((Number) versions[1]).longValue();
+	}
+
 	@Override
 	@Transactional
 	public Account save(Account account) {
@@ -5,7 +5,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.springframework.orm.ObjectRetrievalFailureException;
 
@@ -39,6 +41,8 @@ public class StubAccountManager extends AbstractAccountManager {
 
 	private Map<Long, Account> accountsById = new HashMap<Long, Account>();
 
+	private Map<Long, Long> versionsById = new HashMap<Long, Long>();
+
 	private AtomicLong nextEntityId = new AtomicLong(3);
 
 	public StubAccountManager() {
@@ -56,6 +60,7 @@ public class StubAccountManager extends AbstractAccountManager {
 
 		// Save the account
 		accountsById.put(0L, account);
+		versionsById.put(0L, 0L);
 	}
 
 	@Override
@@ -63,11 +68,53 @@ public class StubAccountManager extends AbstractAccountManager {
 		return new ArrayList<Account>(accountsById.values());
 	}
 
+	@Override
+	public List<Account> getAccounts(Long afterId, int limit) {
+		List<Account> accounts = new ArrayList<Account>();
+		for (Account account : new TreeMap<Long, Account>(accountsById).values()) {
+			if (accounts.size() == limit) {
+				break;
+			}
+			if (afterId == null || account.getEntityId() > afterId) {
+				accounts.add(account);
+			}
+		}
+		return accounts;
+	}
+
+	@Override
+	public void forEachAccount(Consumer<Account> consumer) {
+		new TreeMap<Long, Account>(accountsById).values().forEach(consumer);
+	}
+
 	@Override
 	public Account getAccount(Long id) {
 		return accountsById.get(id);
 	}
 
+	/**
+	 * Any update of an account changes the version of the account and of all
+	 * of its beneficiaries.
+	 */
+	@Override
+	public Long getAccountVersion(Long id) {
+		return versionsById.get(id);
+	}
+
+	@Override
+	public Long getBeneficiaryVersion(Long accountId, String beneficiaryName) {
+		Account account = accountsById.get(accountId);
+		if (account == null) {
+			return null;
+		}
+		for (Beneficiary beneficiary : account.getBeneficiaries()) {
+			if (beneficiary.getName().equals(beneficiaryName)) {
+				return versionsById.get(accountId);
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public Account save(Account newAccount) {
 		for (Beneficiary beneficiary : newAccount.getBeneficiaries()) {
@@ -76,12 +123,14 @@ public class StubAccountManager extends AbstractAccountManager {
 
 		newAccount.setEntityId(nextEntityId.getAndIncrement());
 		accountsById.put(newAccount.getEntityId(), newAccount);
+		versionsById.put(newAccount.getEntityId(), 0L);
 		return newAccount;
 	}
 
 	@Override
 	public void update(Account account) {
 		accountsById.put(account.getEntityId(), account);
+		versionsById.merge(account.getEntityId(), 1L, Long::sum);
 	}
 
 	@Override
@@ -90,17 +139,20 @@ public class StubAccountManager extends AbstractAccountManager {
 		for (Entry<String, Percentage> entry : allocationPercentages.entrySet()) {
 			account.getBeneficiary(entry.getKey()).setAllocationPercentage(entry.getValue());
 		}
+		versionsById.merge(accountId, 1L, Long::sum);
 	}
 
 	@Override
 	public void addBeneficiary(Long accountId, String beneficiaryName) {
 		accountsById.get(accountId).addBeneficiary(beneficiaryName, Percentage.zero());
+		versionsById.merge(accountId, 1L, Long::sum);
 	}
 
 	@Override
 	public void removeBeneficiary(Long accountId, String beneficiaryName,
 			Map<String, Percentage> allocationPercentages) {
 		accountsById.get(accountId).removeBeneficiary(beneficiaryName);
+		versionsById.merge(accountId, 1L, Long::sum);
 		updateBeneficiaryAllocationPercentages(accountId, allocationPercentages);
 	}
 
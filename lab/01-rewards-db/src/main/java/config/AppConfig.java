@@ -4,6 +4,8 @@ import accounts.AccountManager;
 import accounts.internal.JpaAccountManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
 import rewards.internal.account.AccountRepository;
 import rewards.internal.account.JpaAccountRepository;
 import rewards.internal.restaurant.JpaRestaurantRepository;
@@ -29,6 +31,12 @@ public class AppConfig {
 		return new JpaAccountManager();
 	}
 
+	@Bean
+	public RewardNetwork rewardNetwork(AccountRepository accountRepository, RestaurantRepository restaurantRepository,
+			RewardRepository rewardRepository) {
+		return new RewardNetworkImpl(accountRepository, restaurantRepository, rewardRepository);
+	}
+
 	@Bean
 	public AccountRepository accountRepository() {
 		return new JpaAccountRepository();
@@ -10,6 +10,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
@@ -27,6 +29,9 @@ import org.springframework.transaction.PlatformTransactionManager;
  * <p>
  * To simulate Spring Boot we load <code>application.properties</code> manually,
  * if it exists, and mimic Boot's <code>spring.jpa.show-sql</code> property.
+ * <p>
+ * The {@value #CACHE_PROFILE} profile enables the Hibernate second-level
+ * cache, see {@link #secondLevelCacheProperties()}.
  */
 @Configuration
 @PropertySource(value = "application.properties", ignoreResourceNotFound = true)
@@ -34,6 +39,11 @@ public class DbConfig {
 
 	public static final String DOMAIN_OBJECTS_PARENT_PACKAGE = "rewards.internal";
 
+	/**
+	 * The profile enabling the second-level cache.
+	 */
+	public static final String CACHE_PROFILE = "jpa-cache";
+
 	@Value("${spring.jpa.show-sql:true}")  // Default to true if not set elsewhere
 	private String showSql;
 
@@ -60,7 +70,8 @@ public class DbConfig {
 	 * Create an EntityManagerFactoryBean.
 	 */
 	@Bean
-	public LocalContainerEntityManagerFactoryBean entityManagerFactory(JpaVendorAdapter adapter) {
+	public LocalContainerEntityManagerFactoryBean entityManagerFactory(JpaVendorAdapter adapter,
+			Environment environment) {
 
 		// Tell the underlying implementation what type of database we are using - a
 		// hint to generate better SQL
@@ -80,6 +91,14 @@ public class DbConfig {
 		} else {
 			props.setProperty("hibernate.show_sql", String.valueOf(showSql));
 			props.setProperty("hibernate.format_sql", "true");
+
+			if (environment.acceptsProfiles(Profiles.of(CACHE_PROFILE))) {
+				props.putAll(secondLevelCacheProperties());
+			} else {
+				// Hibernate would enable the cache on its own, as it finds a
+				// cache provider on the classpath
+				props.setProperty("hibernate.cache.use_second_level_cache", "false");
+			}
 		}
 
 		LocalContainerEntityManagerFactoryBean emfb = new LocalContainerEntityManagerFactoryBean();
@@ -91,6 +110,25 @@ public class DbConfig {
 		return emfb;
 	}
 
+	/**
+	 * Hibernate properties enabling the second-level cache: an in-process
+	 * Ehcache, through JCache, with the regions configured in
+	 * <code>rewards/jpa-cache.xml</code>. The entities and queries cached are
+	 * annotated as cacheable. Statistics are collected, to see the hits and
+	 * misses of every region.
+	 */
+	public static Properties secondLevelCacheProperties() {
+		Properties props = new Properties();
+		props.setProperty("hibernate.cache.use_second_level_cache", "true");
+		props.setProperty("hibernate.cache.use_query_cache", "true");
+		props.setProperty("hibernate.cache.region.factory_class", "jcache");
+		props.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+		props.setProperty("hibernate.javax.cache.uri", "rewards/jpa-cache.xml");
+		props.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+		props.setProperty("hibernate.generate_statistics", "true");
+		return props;
+	}
+
 	@Bean
 	@Profile("!jpa-elink") // Default is JPA using Hibernate
 	JpaVendorAdapter hibernateVendorAdapter() {
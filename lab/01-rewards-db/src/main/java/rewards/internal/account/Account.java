@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -14,6 +15,10 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import rewards.AccountContribution;
 import rewards.AccountContribution.Distribution;
@@ -32,6 +37,8 @@ import common.money.Percentage;
  */
 @Entity
 @Table(name = "T_ACCOUNT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rewards.account")
 public class Account {
 
 	@Id
@@ -47,8 +54,17 @@ public class Account {
 
 	@OneToMany(cascade = CascadeType.ALL)
 	@JoinColumn(name = "ACCOUNT_ID")
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rewards.account.beneficiaries")
 	private Set<Beneficiary> beneficiaries = new HashSet<Beneficiary>();
 
+	/**
+	 * Incremented on every update of the account, including adding or
+	 * removing a beneficiary.
+	 */
+	@Version
+	@Column(name = "VERSION")
+	private int version;
+
 	protected Account() {
 	}
 
@@ -1,6 +1,7 @@
 package rewards.internal.account;
 
 import javax.persistence.AttributeOverride;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -8,6 +9,10 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import common.money.MonetaryAmount;
 import common.money.Percentage;
@@ -19,6 +24,8 @@ import common.money.Percentage;
  */
 @Entity
 @Table(name = "T_ACCOUNT_BENEFICIARY")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rewards.beneficiary")
 public class Beneficiary {
 
 	@Id
@@ -37,6 +44,13 @@ public class Beneficiary {
 	@AttributeOverride(name = "value", column = @Column(name = "SAVINGS"))
 	private MonetaryAmount savings = MonetaryAmount.zero();
 
+	/**
+	 * Incremented on every update of the beneficiary, e.g. a credit.
+	 */
+	@Version
+	@Column(name = "VERSION")
+	private int version;
+
 	protected Beneficiary() {
 	}
 
@@ -0,0 +1,211 @@
+package rewards.internal.restaurant;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read-through cache in front of another restaurant repository. Restaurants
+ * change rarely, so a restaurant found by its merchant number - together with
+ * the benefit availability policy resolved when it was loaded - is kept for a
+ * while and handed out again without querying the database.
+ * <p>
+ * The cache holds at most <code>maxSize</code> restaurants, dropping the least
+ * recently used one when full, and reloads a restaurant once it is older than
+ * the time-to-live. Call {@link #invalidate(String)} or
+ * {@link #invalidateAll()} when restaurants are changed.
+ * <p>
+ * Cached restaurants are shared between callers and must not be modified.
+ * Unknown merchant numbers are not cached.
+ */
+public class CachingRestaurantRepository implements RestaurantRepository {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+	private final RestaurantRepository delegate;
+
+	private final int maxSize;
+
+	private final long timeToLiveMillis;
+
+	private Clock clock = Clock.systemUTC();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final LongAdder puts = new LongAdder();
+
+	/**
+	 * Cached restaurants by merchant number, least recently used first. Guarded
+	 * by itself.
+	 */
+	private final Map<String, CachedRestaurant> restaurants;
+
+	/**
+	 * Creates a cache with the default size and time-to-live.
+	 *
+	 * @param delegate
+	 *            the repository loading the restaurants
+	 */
+	public CachingRestaurantRepository(RestaurantRepository delegate) {
+		this(delegate, DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+	}
+
+	/**
+	 * Creates a cache.
+	 *
+	 * @param delegate
+	 *            the repository loading the restaurants
+	 * @param maxSize
+	 *            the maximum number of restaurants cached
+	 * @param timeToLive
+	 *            how long a restaurant is cached after it was loaded
+	 */
+	public CachingRestaurantRepository(RestaurantRepository delegate, int maxSize, Duration timeToLive) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be positive; your value was " + maxSize);
+		}
+		if (timeToLive.isNegative() || timeToLive.isZero()) {
+			throw new IllegalArgumentException("Time-to-live must be positive; your value was " + timeToLive);
+		}
+		this.delegate = delegate;
+		this.maxSize = maxSize;
+		this.timeToLiveMillis = timeToLive.toMillis();
+		this.restaurants = new LinkedHashMap<String, CachedRestaurant>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedRestaurant> eldest) {
+				if (size() > CachingRestaurantRepository.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Sets the clock used to expire restaurants. Intended for testing.
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	@Override
+	public String getInfo() {
+		return delegate.getInfo();
+	}
+
+	@Override
+	public Restaurant findByMerchantNumber(String merchantNumber) {
+		long now = clock.millis();
+		synchronized (restaurants) {
+			CachedRestaurant cached = restaurants.get(merchantNumber);
+			if (cached != null) {
+				if (now < cached.expiresAt) {
+					hits.increment();
+					return cached.restaurant;
+				}
+				restaurants.remove(merchantNumber);
+				evictions.increment();
+			}
+		}
+		misses.increment();
+		// load outside the lock, so one slow query does not hold up hits on
+		// other restaurants
+		Restaurant restaurant = delegate.findByMerchantNumber(merchantNumber);
+		synchronized (restaurants) {
+			restaurants.put(merchantNumber, new CachedRestaurant(restaurant, now + timeToLiveMillis));
+		}
+		puts.increment();
+		return restaurant;
+	}
+
+	@Override
+	public Long getRestaurantCount() {
+		return delegate.getRestaurantCount();
+	}
+
+	/**
+	 * Removes a restaurant from the cache, so it is loaded again the next time
+	 * it is asked for.
+	 *
+	 * @param merchantNumber
+	 *            the merchant number of the changed restaurant
+	 */
+	public void invalidate(String merchantNumber) {
+		synchronized (restaurants) {
+			restaurants.remove(merchantNumber);
+		}
+	}
+
+	/**
+	 * Removes all restaurants from the cache.
+	 */
+	public void invalidateAll() {
+		synchronized (restaurants) {
+			restaurants.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of restaurants currently cached, including expired
+	 * ones not asked for since.
+	 */
+	public int size() {
+		synchronized (restaurants) {
+			return restaurants.size();
+		}
+	}
+
+	/**
+	 * Returns the number of lookups answered from the cache.
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Returns the number of lookups passed on to the underlying repository.
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Returns the number of restaurants loaded into the cache.
+	 */
+	public long getPutCount() {
+		return puts.sum();
+	}
+
+	/**
+	 * Returns the number of restaurants dropped because the cache was full or
+	 * they had expired. Explicit invalidations are not counted.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * A restaurant and the time it expires, in milliseconds of the clock.
+	 */
+	private static class CachedRestaurant {
+
+		final Restaurant restaurant;
+
+		final long expiresAt;
+
+		CachedRestaurant(Restaurant restaurant, long expiresAt) {
+			this.restaurant = restaurant;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
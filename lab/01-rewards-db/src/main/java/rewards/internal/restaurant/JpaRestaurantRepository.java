@@ -1,5 +1,6 @@
 package rewards.internal.restaurant;
 
+import org.hibernate.annotations.QueryHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,6 +17,13 @@ public class JpaRestaurantRepository implements RestaurantRepository {
 	public static final String RESTAURANT_BY_MERCHANT_QUERY = //
 			"select r from Restaurant r where r.number = :merchantNumber";
 
+	/**
+	 * The query cache region of {@link #RESTAURANT_BY_MERCHANT_QUERY}, used
+	 * if the second-level cache is enabled (see the "jpa-cache" profile of
+	 * DbConfig).
+	 */
+	public static final String RESTAURANT_BY_MERCHANT_QUERY_REGION = "rewards.restaurant-by-merchant";
+
 	public static final String INFO = "JPA";
 
 	private static final Logger logger = LoggerFactory.getLogger("config");
@@ -41,6 +49,8 @@ public class JpaRestaurantRepository implements RestaurantRepository {
 		return entityManager //
 				.createQuery(RESTAURANT_BY_MERCHANT_QUERY, Restaurant.class) //
 				.setParameter("merchantNumber", merchantNumber) //
+				.setHint(QueryHints.CACHEABLE, true) //
+				.setHint(QueryHints.CACHE_REGION, RESTAURANT_BY_MERCHANT_QUERY_REGION) //
 				.getSingleResult();
 	}
 
@@ -3,6 +3,7 @@ package rewards.internal.restaurant;
 import javax.persistence.Access;
 import javax.persistence.AccessType;
 import javax.persistence.AttributeOverride;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
@@ -10,6 +11,9 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import rewards.Dining;
 import rewards.internal.account.Account;
 
@@ -24,6 +28,8 @@ import common.money.Percentage;
  */
 @Entity
 @Table(name = "T_RESTAURANT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "rewards.restaurant")
 public class Restaurant {
 
 	@Id
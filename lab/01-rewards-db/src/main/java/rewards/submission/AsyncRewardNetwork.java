@@ -0,0 +1,227 @@
+package rewards.submission;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+/**
+ * Rewards dinings in the background: {@link #submit(Dining)} queues a dining and returns at once with a ticket, and
+ * {@link #getSubmission(String)} tells how far the dining has got.
+ * <p>
+ * Dinings are queued in the database by a {@link RewardSubmissionQueue} and rewarded by a fixed number of worker
+ * threads, each dining in one transaction with the record of its outcome. Dinings queued when the application stops
+ * are rewarded once it has {@link #start() started} again, and dinings in process once their lease has expired, see
+ * {@link RewardSubmissionQueue#setLeaseTime(long)}; by this or any other application instance sharing the queue. A dining failing with a transient error,
+ * e.g. because its account was updated concurrently, is tried again up to a maximum number of attempts; so is a dining
+ * whose lease expired.
+ */
+public class AsyncRewardNetwork {
+
+	/**
+	 * The default number of workers rewarding dinings in parallel.
+	 */
+	public static final int DEFAULT_WORKERS = 4;
+
+	/**
+	 * The default number of times a dining is tried.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * The default number of milliseconds an idle worker waits before looking at the queue again.
+	 */
+	public static final long DEFAULT_POLL_INTERVAL = 1000;
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncRewardNetwork.class);
+
+	private RewardNetwork rewardNetwork;
+
+	private RewardSubmissionQueue queue;
+
+	private TransactionTemplate transactionTemplate;
+
+	private int workers = DEFAULT_WORKERS;
+
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	private long pollInterval = DEFAULT_POLL_INTERVAL;
+
+	/**
+	 * Released once per dining submitted, to wake an idle worker.
+	 */
+	private Semaphore submitted = new Semaphore(0);
+
+	private List<Thread> threads = new ArrayList<Thread>();
+
+	private volatile boolean running;
+
+	/**
+	 * Creates a new asynchronous reward network.
+	 * @param rewardNetwork the reward network rewarding the dinings
+	 * @param queue the queue of submitted dinings
+	 * @param transactionManager the transaction manager of the reward network and the queue
+	 */
+	public AsyncRewardNetwork(RewardNetwork rewardNetwork, RewardSubmissionQueue queue,
+			PlatformTransactionManager transactionManager) {
+		this.rewardNetwork = rewardNetwork;
+		this.queue = queue;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Sets the number of workers rewarding dinings in parallel.
+	 * @param workers the number of workers, defaults to {@link #DEFAULT_WORKERS}
+	 */
+	public void setWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Number of workers must be positive; your value was " + workers);
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * Sets the number of times a dining failing with a transient error, or whose lease expires, is tried before it
+	 * fails.
+	 * @param maxAttempts the maximum number of attempts, defaults to {@link #DEFAULT_MAX_ATTEMPTS}
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("Maximum attempts must be positive; your value was " + maxAttempts);
+		}
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Sets how long an idle worker waits before looking at the queue again. Submitting a dining wakes a worker at
+	 * once; the interval only matters for dinings queued by another application instance or put back for a retry.
+	 * @param pollInterval the interval in milliseconds, defaults to {@link #DEFAULT_POLL_INTERVAL}
+	 */
+	public void setPollInterval(long pollInterval) {
+		if (pollInterval < 1) {
+			throw new IllegalArgumentException("Poll interval must be positive; your value was " + pollInterval);
+		}
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * Starts the workers, after putting dinings whose lease has expired, e.g. left in process by the last run, back in
+	 * the queue. Dinings being processed by other running application instances are left to them.
+	 */
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		int recovered = queue.recover();
+		if (recovered > 0) {
+			logger.info("Requeued {} reward submission(s) whose lease expired", recovered);
+		}
+		running = true;
+		for (int i = 1; i <= workers; i++) {
+			Thread thread = new Thread(new Worker(), "reward-submission-" + i);
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+	}
+
+	/**
+	 * Stops the workers once they are done with the dining they are rewarding. Queued dinings stay queued.
+	 */
+	public synchronized void stop() {
+		running = false;
+		submitted.release(threads.size());
+		try {
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		threads.clear();
+	}
+
+	/**
+	 * Queues a dining to be rewarded.
+	 * @param dining the dining to reward
+	 * @return the ticket to look up the submission with
+	 */
+	public String submit(Dining dining) {
+		String ticket = queue.add(dining);
+		submitted.release();
+		return ticket;
+	}
+
+	/**
+	 * Looks up a submitted dining.
+	 * @param ticket the ticket returned when the dining was submitted
+	 * @return the submission, or null if there is none with this ticket
+	 */
+	public RewardSubmission getSubmission(String ticket) {
+		return queue.find(ticket);
+	}
+
+	/**
+	 * Rewards a claimed dining, recording the outcome.
+	 */
+	private void reward(RewardSubmissionQueue.Entry entry) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				RewardConfirmation confirmation = rewardNetwork.rewardAccountFor(entry.dining);
+				queue.rewarded(entry, confirmation.getConfirmationNumber());
+			});
+		} catch (TransientDataAccessException e) {
+			if (entry.attempts < maxAttempts) {
+				logger.debug("Retrying reward submission {} after attempt {}", entry.id, entry.attempts, e);
+				queue.release(entry);
+			} else {
+				logger.warn("Reward submission {} failed after {} attempts", entry.id, entry.attempts, e);
+				queue.failed(entry, e.toString());
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Reward submission {} failed", entry.id, e);
+			queue.failed(entry, e.toString());
+		}
+	}
+
+	/**
+	 * Rewards queued dinings until the workers are stopped.
+	 */
+	private class Worker implements Runnable {
+
+		public void run() {
+			while (running) {
+				try {
+					RewardSubmissionQueue.Entry entry = queue.claim(maxAttempts);
+					if (entry != null) {
+						reward(entry);
+					} else {
+						submitted.tryAcquire(pollInterval, TimeUnit.MILLISECONDS);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (RuntimeException e) {
+					// The database is unavailable, say; try again later
+					logger.error("Reward submission worker failed", e);
+					try {
+						Thread.sleep(pollInterval);
+					} catch (InterruptedException interrupted) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package rewards.submission;
+
+import common.money.MonetaryAmount;
+
+/**
+ * The state of a dining submitted to an {@link AsyncRewardNetwork}, found by its ticket. Once the dining is rewarded it
+ * holds the details of the reward confirmation.
+ */
+public class RewardSubmission {
+
+	/**
+	 * Where a submitted dining is in its processing.
+	 */
+	public enum Status {
+
+		/**
+		 * Waiting for a worker.
+		 */
+		PENDING,
+
+		/**
+		 * Being rewarded by a worker.
+		 */
+		PROCESSING,
+
+		/**
+		 * Rewarded; the confirmation is known.
+		 */
+		REWARDED,
+
+		/**
+		 * Not rewarded, e.g. because the credit card is unknown; see the failure.
+		 */
+		FAILED
+	}
+
+	private String ticket;
+
+	private Status status;
+
+	private String confirmationNumber;
+
+	private String accountNumber;
+
+	private MonetaryAmount rewardAmount;
+
+	private String failure;
+
+	RewardSubmission(String ticket, Status status, String confirmationNumber, String accountNumber,
+			MonetaryAmount rewardAmount, String failure) {
+		this.ticket = ticket;
+		this.status = status;
+		this.confirmationNumber = confirmationNumber;
+		this.accountNumber = accountNumber;
+		this.rewardAmount = rewardAmount;
+		this.failure = failure;
+	}
+
+	/**
+	 * Returns the ticket the dining was submitted with.
+	 */
+	public String getTicket() {
+		return ticket;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns the confirmation number of the reward, or null if the dining is not rewarded (yet).
+	 */
+	public String getConfirmationNumber() {
+		return confirmationNumber;
+	}
+
+	/**
+	 * Returns the number of the account rewarded, or null if the dining is not rewarded (yet).
+	 */
+	public String getAccountNumber() {
+		return accountNumber;
+	}
+
+	/**
+	 * Returns the amount contributed to the account, or null if the dining is not rewarded (yet).
+	 */
+	public MonetaryAmount getRewardAmount() {
+		return rewardAmount;
+	}
+
+	/**
+	 * Returns why the dining was not rewarded, or null unless it {@link Status#FAILED failed}.
+	 */
+	public String getFailure() {
+		return failure;
+	}
+
+	public String toString() {
+		return "Reward submission " + ticket + " " + status
+				+ (confirmationNumber != null ? ", confirmation " + confirmationNumber : "")
+				+ (failure != null ? ": " + failure : "");
+	}
+}
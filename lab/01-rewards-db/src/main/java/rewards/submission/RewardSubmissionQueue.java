@@ -0,0 +1,222 @@
+package rewards.submission;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import rewards.Dining;
+import rewards.submission.RewardSubmission.Status;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * The durable queue of submitted dinings: the T_REWARD_SUBMISSION table. A dining stays in the table once processed,
+ * with the outcome, so its ticket can be looked up later.
+ * <p>
+ * Several application instances may share the queue. A dining is claimed for a lease time by the queue instance
+ * claiming it, its owner, and only claimed again once the lease has expired, e.g. because its owner stopped. The
+ * outcome of a dining is only recorded by the claim it was made for, so a dining claimed again is never rewarded twice.
+ * Leases are timed by the clocks of the application instances, which must agree to well within the lease time.
+ * <p>
+ * Each method is a transaction of its own, unless called within one.
+ */
+public class RewardSubmissionQueue {
+
+	/**
+	 * The longest failure message stored.
+	 */
+	static final int MAX_FAILURE_LENGTH = 250;
+
+	/**
+	 * The default number of milliseconds a dining stays claimed: 5 minutes.
+	 */
+	public static final long DEFAULT_LEASE_TIME = 5 * 60 * 1000;
+
+	private static final Logger logger = LoggerFactory.getLogger(RewardSubmissionQueue.class);
+
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Identifies the dinings claimed by this queue instance.
+	 */
+	private final String owner = UUID.randomUUID().toString();
+
+	private long leaseTime = DEFAULT_LEASE_TIME;
+
+	public RewardSubmissionQueue(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Sets how long a dining stays claimed before another worker may claim it again. Must be well above the time a
+	 * reward takes: a dining whose lease expires while it is being rewarded is rolled back and rewarded by the new
+	 * claim instead.
+	 * @param leaseTime the lease time in milliseconds, defaults to {@link #DEFAULT_LEASE_TIME}
+	 */
+	public void setLeaseTime(long leaseTime) {
+		if (leaseTime < 1) {
+			throw new IllegalArgumentException("Lease time must be positive; your value was " + leaseTime);
+		}
+		this.leaseTime = leaseTime;
+	}
+
+	/**
+	 * Adds a dining to the queue.
+	 * @param dining the dining to reward
+	 * @return the ticket to look up the submission with
+	 */
+	public String add(Dining dining) {
+		String ticket = UUID.randomUUID().toString();
+		jdbcTemplate.update(
+				"insert into T_REWARD_SUBMISSION (TICKET, STATUS, DINING_AMOUNT, DINING_CREDIT_CARD_NUMBER, "
+						+ "DINING_MERCHANT_NUMBER, DINING_DATE) values (?, ?, ?, ?, ?, ?)",
+				ticket, Status.PENDING.name(), dining.getAmount().asBigDecimal(), dining.getCreditCardNumber(),
+				dining.getMerchantNumber(), dining.getDate().asSqlDate());
+		return ticket;
+	}
+
+	/**
+	 * Takes the oldest pending dining, or dining whose lease has expired, for processing. Safe to call from parallel
+	 * workers and application instances: each dining is claimed once per lease.
+	 * <p>
+	 * A dining whose lease expired on its last attempt is failed instead: its attempts never completed, e.g. because
+	 * rewarding it stopped the instance, so claiming it again would only do the same.
+	 * @param maxAttempts the number of times a dining is tried
+	 * @return the dining claimed, or null if none is pending
+	 */
+	Entry claim(int maxAttempts) {
+		while (true) {
+			Timestamp now = new Timestamp(System.currentTimeMillis());
+			List<Entry> pending = jdbcTemplate.query("select ID, ATTEMPTS, DINING_AMOUNT, DINING_CREDIT_CARD_NUMBER, "
+					+ "DINING_MERCHANT_NUMBER, DINING_DATE from T_REWARD_SUBMISSION where STATUS = ? "
+					+ "or (STATUS = ? and LEASE_EXPIRES < ?) order by ID fetch first 1 rows only", this::mapEntry,
+					Status.PENDING.name(), Status.PROCESSING.name(), now);
+			if (pending.isEmpty()) {
+				return null;
+			}
+			Entry entry = pending.get(0);
+			if (entry.attempts >= maxAttempts) {
+				// Unless another worker got to it first
+				if (jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, FAILURE = ?, LEASE_EXPIRES = null "
+						+ "where ID = ? and ATTEMPTS = ? and (STATUS = ? or STATUS = ?)", Status.FAILED.name(),
+						"Lease expired on each of " + entry.attempts + " attempts", entry.id, entry.attempts,
+						Status.PENDING.name(), Status.PROCESSING.name()) == 1) {
+					logger.warn("Reward submission {} failed: lease expired on each of {} attempts", entry.id,
+							entry.attempts);
+				}
+				continue;
+			}
+			// Another worker may have claimed it since: every claim counts an attempt
+			if (jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, ATTEMPTS = ATTEMPTS + 1, OWNER = ?, "
+					+ "LEASE_EXPIRES = ? where ID = ? and ATTEMPTS = ? and (STATUS = ? or STATUS = ?)",
+					Status.PROCESSING.name(), owner, new Timestamp(now.getTime() + leaseTime), entry.id,
+					entry.attempts, Status.PENDING.name(), Status.PROCESSING.name()) == 1) {
+				entry.attempts++;
+				return entry;
+			}
+		}
+	}
+
+	/**
+	 * Records that a claimed dining was rewarded. Called in the transaction of the reward, so a dining is never
+	 * rewarded without this being recorded.
+	 * @throws OptimisticLockingFailureException if the dining was claimed again since, its lease having expired; the
+	 * transaction must roll back
+	 */
+	void rewarded(Entry entry, String confirmationNumber) {
+		if (jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, CONFIRMATION_NUMBER = ?, "
+				+ "LEASE_EXPIRES = null where ID = ? and STATUS = ? and OWNER = ? and ATTEMPTS = ?",
+				Status.REWARDED.name(), confirmationNumber, entry.id, Status.PROCESSING.name(), owner,
+				entry.attempts) == 0) {
+			throw new OptimisticLockingFailureException(
+					"Reward submission " + entry.id + " was claimed again since its lease expired");
+		}
+	}
+
+	/**
+	 * Records that a claimed dining cannot be rewarded, unless it was claimed again since.
+	 */
+	void failed(Entry entry, String failure) {
+		if (failure.length() > MAX_FAILURE_LENGTH) {
+			failure = failure.substring(0, MAX_FAILURE_LENGTH);
+		}
+		jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, FAILURE = ?, LEASE_EXPIRES = null "
+				+ "where ID = ? and STATUS = ? and OWNER = ? and ATTEMPTS = ?", Status.FAILED.name(), failure,
+				entry.id, Status.PROCESSING.name(), owner, entry.attempts);
+	}
+
+	/**
+	 * Puts a claimed dining back in the queue, to be tried again, unless it was claimed again since.
+	 */
+	void release(Entry entry) {
+		jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, LEASE_EXPIRES = null "
+				+ "where ID = ? and STATUS = ? and OWNER = ? and ATTEMPTS = ?", Status.PENDING.name(), entry.id,
+				Status.PROCESSING.name(), owner, entry.attempts);
+	}
+
+	/**
+	 * Puts the dinings whose lease has expired back in the queue, e.g. those being processed by an application
+	 * instance that stopped. Their rewards were not committed, or they would not be processing any more. Dinings being
+	 * processed by a running instance are left alone.
+	 * @return the number of dinings put back
+	 */
+	int recover() {
+		return jdbcTemplate.update("update T_REWARD_SUBMISSION set STATUS = ?, LEASE_EXPIRES = null "
+				+ "where STATUS = ? and LEASE_EXPIRES < ?", Status.PENDING.name(), Status.PROCESSING.name(),
+				new Timestamp(System.currentTimeMillis()));
+	}
+
+	/**
+	 * Looks up a submission, with the details of its reward if it was rewarded.
+	 * @param ticket the ticket of the submission
+	 * @return the submission, or null if there is none with this ticket
+	 */
+	public RewardSubmission find(String ticket) {
+		List<RewardSubmission> submissions = jdbcTemplate.query(
+				"select s.TICKET, s.STATUS, s.CONFIRMATION_NUMBER, s.FAILURE, r.ACCOUNT_NUMBER, r.REWARD_AMOUNT "
+						+ "from T_REWARD_SUBMISSION s left join T_REWARD r on r.CONFIRMATION_NUMBER = s.CONFIRMATION_NUMBER "
+						+ "where s.TICKET = ?",
+				(rs, rowNum) -> new RewardSubmission(rs.getString("TICKET"), Status.valueOf(rs.getString("STATUS")),
+						rs.getString("CONFIRMATION_NUMBER"), rs.getString("ACCOUNT_NUMBER"),
+						rs.getBigDecimal("REWARD_AMOUNT") != null
+								? new MonetaryAmount(rs.getBigDecimal("REWARD_AMOUNT")) : null,
+						rs.getString("FAILURE")),
+				ticket);
+		return submissions.isEmpty() ? null : submissions.get(0);
+	}
+
+	private Entry mapEntry(ResultSet rs, int rowNum) throws SQLException {
+		Dining dining = new Dining(new MonetaryAmount(rs.getBigDecimal("DINING_AMOUNT")),
+				rs.getString("DINING_CREDIT_CARD_NUMBER"), rs.getString("DINING_MERCHANT_NUMBER"),
+				SimpleDate.valueOf(rs.getDate("DINING_DATE")));
+		return new Entry(rs.getLong("ID"), dining, rs.getInt("ATTEMPTS"));
+	}
+
+	/**
+	 * A dining claimed from the queue.
+	 */
+	static class Entry {
+
+		final long id;
+
+		final Dining dining;
+
+		int attempts;
+
+		Entry(long id, Dining dining, int attempts) {
+			this.id = id;
+			this.dining = dining;
+			this.attempts = attempts;
+		}
+	}
+}
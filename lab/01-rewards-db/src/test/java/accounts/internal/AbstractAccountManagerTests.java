@@ -13,12 +13,16 @@ import org.springframework.transaction.annotation.Transactional;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Integration test for an account manager implementation.
@@ -67,6 +71,33 @@ public abstract class AbstractAccountManagerTests {
 		assertEquals(getNumAccountsExpected(), accounts.size(), "Wrong number of accounts");
 	}
 
+	@Test
+	@Transactional
+	public void getAccounts() {
+		List<Account> firstPage = accountManager.getAccounts(null, 1);
+		assertEquals(1, firstPage.size(), "Wrong page size");
+		assertEquals(Long.valueOf(0), firstPage.get(0).getEntityId(), "wrong entity id");
+		assertEquals(2, firstPage.get(0).getBeneficiaries().size(), "wrong beneficiary collection size");
+
+		List<Account> nextPage = accountManager.getAccounts(firstPage.get(0).getEntityId(), 100);
+		assertEquals(getNumAccountsExpected() - 1, nextPage.size(), "Wrong number of accounts");
+		assertAscendingIds(firstPage.get(0).getEntityId(), nextPage);
+	}
+
+	@Test
+	@Transactional
+	public void forEachAccount() {
+		List<Account> accounts = new ArrayList<Account>();
+		accountManager.forEachAccount(account -> {
+			if (account.getEntityId() == 0L) {
+				assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+			}
+			accounts.add(account);
+		});
+		assertEquals(getNumAccountsExpected(), accounts.size(), "Wrong number of accounts");
+		assertAscendingIds(Long.MIN_VALUE, accounts);
+	}
+
 	@Test
 	@Transactional
 	public void getAccount() {
@@ -90,6 +121,36 @@ public abstract class AbstractAccountManagerTests {
 		assertEquals(Percentage.valueOf("50%"), b2.getAllocationPercentage(), "wrong allocation percentage");
 	}
 
+	@Test
+	@Transactional
+	public void getVersions() {
+		Long accountVersion = accountManager.getAccountVersion(0L);
+		Long beneficiaryVersion = accountManager.getBeneficiaryVersion(0L, "Annabelle");
+		assertNotNull(accountVersion, "account should have a version");
+		assertNotNull(beneficiaryVersion, "beneficiary should have a version");
+		assertNull(accountManager.getAccountVersion(9999L), "no such account");
+		assertNull(accountManager.getBeneficiaryVersion(0L, "Ben"), "no such beneficiary");
+
+		// Versions are only incremented on flush, which manual configuration
+		// does not do before queries (see addAccount)
+		if (accountManager instanceof JpaAccountManager
+				&& this.getClass().getAnnotation(ContextConfiguration.class) == null)
+			return;
+
+		Map<String, Percentage> allocationPercentages = new HashMap<String, Percentage>();
+		allocationPercentages.put("Annabelle", Percentage.valueOf("25%"));
+		allocationPercentages.put("Corgan", Percentage.valueOf("75%"));
+		accountManager.updateBeneficiaryAllocationPercentages(0L, allocationPercentages);
+		assertNotEquals(accountVersion, accountManager.getAccountVersion(0L), "account version not changed");
+		assertNotEquals(beneficiaryVersion, accountManager.getBeneficiaryVersion(0L, "Annabelle"),
+				"beneficiary version not changed");
+
+		accountVersion = accountManager.getAccountVersion(0L);
+		accountManager.addBeneficiary(0L, "Ben");
+		assertNotEquals(accountVersion, accountManager.getAccountVersion(0L), "account version not changed");
+		assertNotNull(accountManager.getBeneficiaryVersion(0L, "Ben"), "beneficiary should have a version");
+	}
+
 	@Test
 	@Transactional
 	public void addAccount() {
@@ -159,4 +220,11 @@ public abstract class AbstractAccountManagerTests {
 				account.getBeneficiary("Corgan").getAllocationPercentage(), "Corgan should now have 100% allocation");
 	}
 
+	private void assertAscendingIds(long afterId, List<Account> accounts) {
+		for (Account account : accounts) {
+			assertTrue(account.getEntityId() > afterId, "Accounts not in order of id");
+			afterId = account.getEntityId();
+		}
+	}
+
 }
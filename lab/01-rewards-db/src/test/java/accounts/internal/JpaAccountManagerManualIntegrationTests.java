@@ -3,8 +3,14 @@ package accounts.internal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import rewards.internal.account.Account;
 import utils.DataManagementSetup;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -27,6 +33,22 @@ public class JpaAccountManagerManualIntegrationTests extends AbstractDatabaseAcc
 		logger.info("JPA with Hibernate");
 	}
 
+	@Test
+	public void getAllAccountsInBatches() {
+		((JpaAccountManager) accountManager).setBatchSize(4);
+		List<Account> accounts = accountManager.getAllAccounts();
+		assertEquals(getNumAccountsExpected(), accounts.size(), "Wrong number of accounts");
+		for (int i = 0; i < accounts.size(); i++) {
+			assertEquals(Long.valueOf(i), accounts.get(i).getEntityId(), "Accounts not in order of id");
+		}
+		assertEquals(2, accounts.get(0).getBeneficiaries().size(), "wrong beneficiary collection size");
+	}
+
+	@Test
+	public void invalidBatchSize() {
+		assertThrows(IllegalArgumentException.class, () -> ((JpaAccountManager) accountManager).setBatchSize(0));
+	}
+
 	@BeforeEach
 	@Override
 	public void setUp() throws Exception {
@@ -0,0 +1,82 @@
+package rewards.internal;
+
+import config.AppConfig;
+import config.DbConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.JpaRestaurantRepository;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration test of the second-level cache: loading an account or a
+ * restaurant again in a new transaction does not query the database.
+ */
+@ActiveProfiles({ "jpa", DbConfig.CACHE_PROFILE })
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AppConfig.class, DbConfig.class })
+public class SecondLevelCacheIntegrationTests {
+
+	@Autowired
+	private AccountRepository accountRepository;
+
+	@Autowired
+	private RestaurantRepository restaurantRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManagerFactory.getCache().evictAll();
+		statistics.clear();
+	}
+
+	@Test
+	public void findAccountFromCache() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		for (int i = 0; i < 2; i++) {
+			Account account = transaction.execute(status -> accountRepository.findByCreditCard("1234123412341234"));
+			assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+		}
+
+		assertEquals(1, statistics.getDomainDataRegionStatistics("rewards.account").getMissCount());
+		assertEquals(1, statistics.getDomainDataRegionStatistics("rewards.account").getHitCount());
+		assertEquals(1, statistics.getDomainDataRegionStatistics("rewards.account.beneficiaries").getHitCount());
+		assertEquals(2, statistics.getDomainDataRegionStatistics("rewards.beneficiary").getHitCount());
+	}
+
+	@Test
+	public void findRestaurantFromCache() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		for (int i = 0; i < 2; i++) {
+			transaction.execute(status -> restaurantRepository.findByMerchantNumber("1234567890"));
+		}
+
+		String queryRegion = JpaRestaurantRepository.RESTAURANT_BY_MERCHANT_QUERY_REGION;
+		assertEquals(1, statistics.getQueryRegionStatistics(queryRegion).getMissCount());
+		assertEquals(1, statistics.getQueryRegionStatistics(queryRegion).getHitCount());
+		assertEquals(1, statistics.getDomainDataRegionStatistics("rewards.restaurant").getHitCount());
+	}
+
+}
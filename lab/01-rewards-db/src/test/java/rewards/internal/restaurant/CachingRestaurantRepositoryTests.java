@@ -0,0 +1,110 @@
+package rewards.internal.restaurant;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectRetrievalFailureException;
+
+import common.money.Percentage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the caching restaurant repository, using a stub repository
+ * that counts how often it is asked for a restaurant.
+ */
+public class CachingRestaurantRepositoryTests {
+
+	private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+	private CountingRestaurantRepository delegate;
+
+	private CachingRestaurantRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		delegate = new CountingRestaurantRepository();
+		repository = new CachingRestaurantRepository(delegate, 2, Duration.ofMinutes(10));
+		repository.setClock(Clock.fixed(START, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void testFindCachedRestaurant() {
+		Restaurant restaurant = repository.findByMerchantNumber("1234567890");
+		assertSame(restaurant, repository.findByMerchantNumber("1234567890"));
+		assertEquals(1, delegate.lookups, "restaurant should be loaded once");
+		assertEquals(1, repository.getHitCount());
+		assertEquals(1, repository.getMissCount());
+	}
+
+	@Test
+	public void testRestaurantExpires() {
+		repository.findByMerchantNumber("1234567890");
+		repository.setClock(Clock.fixed(START.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+		repository.findByMerchantNumber("1234567890");
+		assertEquals(2, delegate.lookups, "expired restaurant should be reloaded");
+		assertEquals(1, repository.getEvictionCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedRestaurantEvicted() {
+		repository.findByMerchantNumber("1");
+		repository.findByMerchantNumber("2");
+		repository.findByMerchantNumber("1");
+		repository.findByMerchantNumber("3");
+		assertEquals(2, repository.size());
+		assertEquals(1, repository.getEvictionCount());
+
+		repository.findByMerchantNumber("1");
+		assertEquals(3, delegate.lookups, "most recently used restaurant should still be cached");
+		repository.findByMerchantNumber("2");
+		assertEquals(4, delegate.lookups, "least recently used restaurant should have been evicted");
+	}
+
+	@Test
+	public void testInvalidate() {
+		repository.findByMerchantNumber("1234567890");
+		repository.invalidate("1234567890");
+		repository.findByMerchantNumber("1234567890");
+		assertEquals(2, delegate.lookups);
+
+		repository.invalidateAll();
+		assertEquals(0, repository.size());
+		assertEquals(0, repository.getEvictionCount(), "invalidations are not evictions");
+	}
+
+	@Test
+	public void testUnknownRestaurantNotCached() {
+		assertThrows(ObjectRetrievalFailureException.class, () -> repository.findByMerchantNumber("bogus"));
+		assertThrows(ObjectRetrievalFailureException.class, () -> repository.findByMerchantNumber("bogus"));
+		assertEquals(2, delegate.lookups);
+		assertEquals(0, repository.size());
+	}
+
+	/**
+	 * Finds a restaurant for every merchant number but "bogus" and counts the
+	 * lookups.
+	 */
+	private static class CountingRestaurantRepository extends StubRestaurantRepository {
+
+		int lookups;
+
+		@Override
+		public Restaurant findByMerchantNumber(String merchantNumber) {
+			lookups++;
+			if ("bogus".equals(merchantNumber)) {
+				throw new ObjectRetrievalFailureException(Restaurant.class, merchantNumber);
+			}
+			Restaurant restaurant = new Restaurant(merchantNumber, "Restaurant " + merchantNumber);
+			restaurant.setBenefitPercentage(Percentage.valueOf("8%"));
+			restaurant.setBenefitAvailabilityPolicy(AlwaysAvailable.INSTANCE);
+			return restaurant;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package rewards.submission;
+
+import config.AppConfig;
+import config.DbConfig;
+import common.money.MonetaryAmount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import rewards.Dining;
+import rewards.RewardNetwork;
+import rewards.submission.RewardSubmission.Status;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Integration test of the asynchronous reward network against the test
+ * database: submitted dinings are rewarded in the background.
+ * <p>
+ * The rewards are committed, so the test database is recreated after each
+ * test for the tests sharing it.
+ */
+@ActiveProfiles("jpa")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AppConfig.class, DbConfig.class })
+@Sql(scripts = { "classpath:rewards/testdb/schema.sql", "classpath:rewards/testdb/data.sql" },
+		executionPhase = ExecutionPhase.AFTER_TEST_METHOD)
+public class AsyncRewardNetworkIntegrationTests {
+
+	private static final int MAX_ATTEMPTS = AsyncRewardNetwork.DEFAULT_MAX_ATTEMPTS;
+
+	@Autowired
+	private RewardNetwork rewardNetwork;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private RewardSubmissionQueue queue;
+
+	private AsyncRewardNetwork asyncRewardNetwork;
+
+	@BeforeEach
+	public void setUp() {
+		queue = new RewardSubmissionQueue(dataSource);
+		asyncRewardNetwork = new AsyncRewardNetwork(rewardNetwork, queue, transactionManager);
+		asyncRewardNetwork.setWorkers(2);
+		asyncRewardNetwork.setPollInterval(50);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		asyncRewardNetwork.stop();
+	}
+
+	@Test
+	public void rewardSubmittedDining() throws InterruptedException {
+		asyncRewardNetwork.start();
+		String ticket = asyncRewardNetwork.submit(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+
+		RewardSubmission submission = awaitOutcome(ticket);
+		assertEquals(Status.REWARDED, submission.getStatus(), "wrong status: " + submission);
+		assertNotNull(submission.getConfirmationNumber(), "no confirmation number");
+		assertEquals("123456789", submission.getAccountNumber(), "wrong account number");
+		assertEquals(MonetaryAmount.valueOf("8.00"), submission.getRewardAmount(), "wrong reward amount");
+		assertNull(submission.getFailure(), "unexpected failure");
+	}
+
+	@Test
+	public void failUnknownCreditCard() throws InterruptedException {
+		asyncRewardNetwork.start();
+		String ticket = asyncRewardNetwork.submit(Dining.createDining("100.00", "9999999999999999", "1234567890"));
+
+		RewardSubmission submission = awaitOutcome(ticket);
+		assertEquals(Status.FAILED, submission.getStatus(), "wrong status: " + submission);
+		assertNull(submission.getConfirmationNumber(), "unexpected confirmation number");
+		assertNotNull(submission.getFailure(), "no failure");
+	}
+
+	@Test
+	public void recoverSubmissionLeftInProcess() throws InterruptedException {
+		// Claimed by a worker of a run that did not finish, whose lease has expired
+		RewardSubmissionQueue stopped = new RewardSubmissionQueue(dataSource);
+		stopped.setLeaseTime(1);
+		String ticket = queue.add(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+		assertNotNull(stopped.claim(MAX_ATTEMPTS), "nothing to claim");
+		assertEquals(Status.PROCESSING, queue.find(ticket).getStatus(), "wrong status");
+		Thread.sleep(10);
+
+		asyncRewardNetwork.start();
+		assertEquals(Status.REWARDED, awaitOutcome(ticket).getStatus(), "not rewarded after restart");
+	}
+
+	@Test
+	public void leaveSubmissionInProcessByAnotherInstance() throws InterruptedException {
+		RewardSubmissionQueue running = new RewardSubmissionQueue(dataSource);
+		String inProcess = queue.add(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+		RewardSubmissionQueue.Entry entry = running.claim(MAX_ATTEMPTS);
+		assertNotNull(entry, "nothing to claim");
+		assertNull(queue.claim(MAX_ATTEMPTS), "claimed twice");
+
+		asyncRewardNetwork.start();
+		String ticket = asyncRewardNetwork.submit(Dining.createDining("100.00", "1234123412340003", "1234567890"));
+		assertEquals(Status.REWARDED, awaitOutcome(ticket).getStatus(), "wrong status");
+		assertEquals(Status.PROCESSING, queue.find(inProcess).getStatus(), "taken from its running instance");
+
+		running.rewarded(entry, "1");
+		assertEquals(Status.REWARDED, queue.find(inProcess).getStatus(), "outcome not recorded");
+	}
+
+	@Test
+	public void outcomeOfExpiredClaimIsNotRecorded() throws InterruptedException {
+		RewardSubmissionQueue slow = new RewardSubmissionQueue(dataSource);
+		slow.setLeaseTime(1);
+		String ticket = queue.add(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+		RewardSubmissionQueue.Entry expired = slow.claim(MAX_ATTEMPTS);
+		Thread.sleep(10);
+		RewardSubmissionQueue.Entry claimed = queue.claim(MAX_ATTEMPTS);
+		assertNotNull(claimed, "expired lease not claimed again");
+		assertEquals(2, claimed.attempts, "wrong attempts");
+
+		assertThrows(OptimisticLockingFailureException.class, () -> slow.rewarded(expired, "1"));
+		slow.failed(expired, "too late");
+		slow.release(expired);
+		assertEquals(Status.PROCESSING, queue.find(ticket).getStatus(), "outcome of the expired claim recorded");
+		queue.rewarded(claimed, "2");
+		assertEquals("2", queue.find(ticket).getConfirmationNumber(), "wrong confirmation number");
+	}
+
+	@Test
+	public void failSubmissionWhoseLeaseExpiredOnEveryAttempt() throws InterruptedException {
+		// Every attempt stopped the instance that claimed it
+		RewardSubmissionQueue stopped = new RewardSubmissionQueue(dataSource);
+		stopped.setLeaseTime(1);
+		String ticket = queue.add(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+		for (int i = 1; i <= MAX_ATTEMPTS; i++) {
+			assertNotNull(stopped.claim(MAX_ATTEMPTS), "expired lease not claimed again");
+			Thread.sleep(10);
+		}
+
+		assertNull(queue.claim(MAX_ATTEMPTS), "claimed after the last attempt");
+		RewardSubmission submission = queue.find(ticket);
+		assertEquals(Status.FAILED, submission.getStatus(), "wrong status: " + submission);
+		assertNotNull(submission.getFailure(), "no failure");
+	}
+
+	@Test
+	public void unknownTicket() {
+		assertNull(asyncRewardNetwork.getSubmission("no-such-ticket"));
+	}
+
+	@Test
+	public void truncateLongFailure() {
+		String ticket = queue.add(Dining.createDining("100.00", "1234123412341234", "1234567890"));
+		queue.failed(queue.claim(MAX_ATTEMPTS), "x".repeat(RewardSubmissionQueue.MAX_FAILURE_LENGTH + 1));
+		assertEquals(RewardSubmissionQueue.MAX_FAILURE_LENGTH, queue.find(ticket).getFailure().length(),
+				"failure not truncated");
+	}
+
+	@Test
+	public void invalidSettings() {
+		assertThrows(IllegalArgumentException.class, () -> asyncRewardNetwork.setWorkers(0));
+		assertThrows(IllegalArgumentException.class, () -> asyncRewardNetwork.setMaxAttempts(0));
+		assertThrows(IllegalArgumentException.class, () -> asyncRewardNetwork.setPollInterval(0));
+		assertThrows(IllegalArgumentException.class, () -> queue.setLeaseTime(0));
+	}
+
+	private RewardSubmission awaitOutcome(String ticket) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (System.currentTimeMillis() < deadline) {
+			RewardSubmission submission = asyncRewardNetwork.getSubmission(ticket);
+			assertNotNull(submission, "submission not found");
+			if (submission.getStatus() == Status.REWARDED || submission.getStatus() == Status.FAILED) {
+				return submission;
+			}
+			Thread.sleep(20);
+		}
+		fail("Dining not processed in time: " + asyncRewardNetwork.getSubmission(ticket));
+		return null;
+	}
+}
@@ -76,6 +76,9 @@ public class DataManagementSetup {
 		// issuing proper SQL)
 		properties.setProperty("hibenate.show_sql", "true");
 		properties.setProperty("hibernate.format_sql", "true");
+		// as in DbConfig without the jpa-cache profile: Hibernate would enable
+		// the cache on its own, as it finds a cache provider on the classpath
+		properties.setProperty("hibernate.cache.use_second_level_cache", "false");
 		return properties;
 	}
 
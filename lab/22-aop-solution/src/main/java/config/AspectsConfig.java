@@ -1,21 +1,48 @@
 package config;
 
+import java.util.function.Supplier;
+
+import org.aspectj.lang.Aspects;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
+import rewards.internal.aspects.DBExceptionHandlingAspect;
+import rewards.internal.aspects.LoggingAspect;
 import rewards.internal.monitor.MonitorFactory;
-import rewards.internal.monitor.jamon.JamonMonitorFactory;
+import rewards.internal.monitor.hdr.HdrHistogramMonitorFactory;
 
+/**
+ * The aspects, applied by proxying the repositories, or woven into their classes at compile time when built with
+ * the "ajc" profile. Spring never proxies with an aspect compiled by ajc, so then no proxies are created and the
+ * aspects configured are the instances the woven classes call.
+ */
 @Configuration
-@ComponentScan(basePackages="rewards.internal.aspects")
 @EnableAspectJAutoProxy
 public class AspectsConfig {
 
 	@Bean
 	public MonitorFactory monitorFactory(){
-		return new JamonMonitorFactory();
+		return new HdrHistogramMonitorFactory();
+	}
+
+	@Bean
+	public LoggingAspect loggingAspect() {
+		LoggingAspect loggingAspect = aspect(LoggingAspect.class, LoggingAspect::new);
+		loggingAspect.setMonitorFactory(monitorFactory());
+		return loggingAspect;
+	}
+
+	@Bean
+	public DBExceptionHandlingAspect dbExceptionHandlingAspect() {
+		return aspect(DBExceptionHandlingAspect.class, DBExceptionHandlingAspect::new);
 	}
-	
+
+	/**
+	 * Returns the instance of a woven aspect, or a new instance of an aspect to proxy with.
+	 */
+	private static <T> T aspect(Class<T> aspectClass, Supplier<T> constructor) {
+		return Aspects.hasAspect(aspectClass) ? Aspects.aspectOf(aspectClass) : constructor.get();
+	}
+
 }
@@ -1,27 +1,50 @@
 package rewards.internal.aspects;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Value;
 
 import rewards.internal.monitor.Monitor;
 import rewards.internal.monitor.MonitorFactory;
 
 @Aspect
-@Component
 public class LoggingAspect {
     public final static String BEFORE = "'Before'";
     public final static String AROUND = "'Around'";
 
+	/**
+	 * By default every call is logged.
+	 */
+	public static final int DEFAULT_LOG_SAMPLE_RATE = 1;
+
 	private Logger logger = LoggerFactory.getLogger(getClass());
 	private MonitorFactory monitorFactory;
+	private int logSampleRate = DEFAULT_LOG_SAMPLE_RATE;
+
+	/**
+	 * The trace names of the monitored methods. Spring AOP creates a new join point, static part included, for every
+	 * call, so the names are cached by method instead.
+	 */
+	private ConcurrentMap<Method, String> traceNames = new ConcurrentHashMap<Method, String>();
+
+	/**
+	 * Creates the aspect woven in by ajc; calls are not monitored until a monitor factory is set.
+	 */
+	public LoggingAspect() {
+	}
 
 	@Autowired
 	public LoggingAspect(MonitorFactory monitorFactory) {
@@ -29,32 +52,70 @@ public class LoggingAspect {
 		this.monitorFactory = monitorFactory;
 	}
 
+	public void setMonitorFactory(MonitorFactory monitorFactory) {
+		this.monitorFactory = monitorFactory;
+	}
+
+	/**
+	 * Sets how many calls there are per call logged: with N, 1 in N calls is logged, picked at random. Calls are
+	 * monitored either way.
+	 * @param logSampleRate the sample rate, defaults to {@link #DEFAULT_LOG_SAMPLE_RATE}
+	 */
+	@Value("${rewards.aspects.log-sample-rate:" + DEFAULT_LOG_SAMPLE_RATE + "}")
+	public void setLogSampleRate(int logSampleRate) {
+		if (logSampleRate < 1) {
+			throw new IllegalArgumentException("Log sample rate must be positive; your value was " + logSampleRate);
+		}
+		this.logSampleRate = logSampleRate;
+	}
+
 	@Before("execution(public * rewards.internal.*.*Repository.find*(..))")
 	public void implLogging(JoinPoint joinPoint) {
-        logger.info(BEFORE + " advice implementation - " + joinPoint.getTarget().getClass() + //
-                    "; Executing before " + joinPoint.getSignature().getName() + //
-                    "() method");
-
+		if (logger.isInfoEnabled() && sampled()) {
+			logger.info("{} advice implementation - {}; Executing before {}() method", BEFORE,
+					joinPoint.getTarget().getClass(), joinPoint.getSignature().getName());
+		}
 	}
 
 	@Around("execution(public * rewards.internal.*.*Repository.update*(..))")
 	public Object monitor(ProceedingJoinPoint repositoryMethod) throws Throwable {
+		if (monitorFactory == null) {
+			return repositoryMethod.proceed();
+		}
 		String name = createJoinPointTraceName(repositoryMethod);
 		Monitor monitor = monitorFactory.start(name);
 		try {
 			return repositoryMethod.proceed();
 		} finally {
 			monitor.stop();
-            logger.info(AROUND + " advice implementation - " + monitor);
-
+			if (logger.isInfoEnabled() && sampled()) {
+				logger.info("{} advice implementation - {}", AROUND, monitor);
+			}
 		}
 	}
 
+	private boolean sampled() {
+		return logSampleRate == 1 || ThreadLocalRandom.current().nextInt(logSampleRate) == 0;
+	}
+
 	private String createJoinPointTraceName(JoinPoint joinPoint) {
 		Signature signature = joinPoint.getSignature();
+		if (!(signature instanceof MethodSignature)) {
+			return createTraceName(signature);
+		}
+		Method method = ((MethodSignature) signature).getMethod();
+		String name = traceNames.get(method);
+		if (name == null) {
+			name = createTraceName(signature);
+			traceNames.putIfAbsent(method, name);
+		}
+		return name;
+	}
+
+	private String createTraceName(Signature signature) {
 		StringBuilder sb = new StringBuilder();
 		sb.append(signature.getDeclaringType().getSimpleName());
 		sb.append('.').append(signature.getName());
 		return sb.toString();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package rewards.internal.monitor;
+
+public interface PercentileMonitorStatistics extends GlobalMonitorStatistics {
+
+	/**
+	 * Returns the call time of a method that the given percentage of its calls did not exceed, e.g. 50, 99 or 99.9.
+	 */
+	long percentileCallTime(String methodName, double percentile);
+}
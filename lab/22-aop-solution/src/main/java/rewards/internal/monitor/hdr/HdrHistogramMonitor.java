@@ -0,0 +1,39 @@
+package rewards.internal.monitor.hdr;
+
+import rewards.internal.monitor.Monitor;
+
+/**
+ * Times one call, and records it into the statistics of its method when stopped.
+ */
+public class HdrHistogramMonitor implements Monitor {
+
+	private HdrHistogramMonitorStatistics statistics;
+
+	private long startTime;
+
+	HdrHistogramMonitor(HdrHistogramMonitorStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	public Monitor start() {
+		startTime = System.nanoTime();
+		return this;
+	}
+
+	public Monitor stop() {
+		long stopTime = System.nanoTime();
+		statistics.record(stopTime - startTime, stopTime);
+		return this;
+	}
+
+	public HdrHistogramMonitorStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Describes the statistics of the method without percentiles, as this is logged with every call.
+	 */
+	public String toString() {
+		return statistics.toString(false);
+	}
+}
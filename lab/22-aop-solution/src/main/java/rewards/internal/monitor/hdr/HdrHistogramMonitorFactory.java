@@ -0,0 +1,115 @@
+package rewards.internal.monitor.hdr;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import rewards.internal.monitor.Monitor;
+import rewards.internal.monitor.MonitorFactory;
+import rewards.internal.monitor.PercentileMonitorStatistics;
+
+/**
+ * Monitors calls into HDR histograms, one per monitored method, created on the first call and cached after that.
+ * Unlike JAMon no lock is taken on a call, and the percentiles of the call times are kept.
+ * <p>
+ * All times are in nanoseconds rather than JAMon's milliseconds, as a call to a repository of an embedded database
+ * takes microseconds.
+ * <p>
+ * A call only records into the statistics of its method: the time of the last access is worked out when asked for,
+ * from when the last call of every method ended.
+ */
+public class HdrHistogramMonitorFactory implements MonitorFactory, PercentileMonitorStatistics {
+
+	private ConcurrentMap<String, HdrHistogramMonitorStatistics> monitors = new ConcurrentHashMap<String, HdrHistogramMonitorStatistics>();
+
+	/**
+	 * When the factory was created, by the wall clock and by {@link System#nanoTime()}, to date the end of a call.
+	 */
+	private final long createdMillis = System.currentTimeMillis();
+
+	private final long createdNanos = System.nanoTime();
+
+	public Monitor start(String name) {
+		return new HdrHistogramMonitor(getStatistics(name)).start();
+	}
+
+	/**
+	 * Returns the statistics of a method, creating them on its first call.
+	 */
+	private HdrHistogramMonitorStatistics getStatistics(String name) {
+		// Unlike computeIfAbsent, a get never locks once the method is known
+		HdrHistogramMonitorStatistics statistics = monitors.get(name);
+		if (statistics == null) {
+			statistics = monitors.computeIfAbsent(name, HdrHistogramMonitorStatistics::new);
+		}
+		return statistics;
+	}
+
+	public Collection<HdrHistogramMonitorStatistics> getMonitors() {
+		return Collections.unmodifiableCollection(monitors.values());
+	}
+
+	public long getCallsCount() {
+		long calls = 0;
+		for (HdrHistogramMonitorStatistics statistics : monitors.values()) {
+			calls += statistics.getCallCount();
+		}
+		return calls;
+	}
+
+	public long getTotalCallTime() {
+		long total = 0;
+		for (HdrHistogramMonitorStatistics statistics : monitors.values()) {
+			total += statistics.getTotalCallTime();
+		}
+		return total;
+	}
+
+	public Date getLastAccessTime() {
+		Long lastCallEnd = null;
+		for (HdrHistogramMonitorStatistics statistics : monitors.values()) {
+			if (statistics.getCallCount() > 0 && (lastCallEnd == null || statistics.getLastCallEnd() - lastCallEnd > 0)) {
+				lastCallEnd = statistics.getLastCallEnd();
+			}
+		}
+		return lastCallEnd == null ? null : new Date(createdMillis + (lastCallEnd - createdNanos) / 1000000);
+	}
+
+	public long lastCallTime(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getLastCallTime();
+	}
+
+	public long callCount(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getCallCount();
+	}
+
+	public long averageCallTime(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getAverageCallTime();
+	}
+
+	public long totalCallTime(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getTotalCallTime();
+	}
+
+	public long minimumCallTime(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getMinimumCallTime();
+	}
+
+	public long maximumCallTime(String methodName) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getMaximumCallTime();
+	}
+
+	public long percentileCallTime(String methodName, double percentile) {
+		HdrHistogramMonitorStatistics statistics = monitors.get(methodName);
+		return statistics == null ? 0 : statistics.getPercentileCallTime(percentile);
+	}
+
+}
@@ -0,0 +1,113 @@
+package rewards.internal.monitor.hdr;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import rewards.internal.monitor.MonitorStatistics;
+
+/**
+ * The call times of one monitored method, in nanoseconds. Recording a call is wait-free, so threads calling the same
+ * method never block each other.
+ */
+public class HdrHistogramMonitorStatistics implements MonitorStatistics {
+
+	/**
+	 * The number of significant decimal digits of the recorded call times: within 1%.
+	 */
+	public static final int SIGNIFICANT_DIGITS = 2;
+
+	private String name;
+
+	private Histogram histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+	private LongAdder callCount = new LongAdder();
+
+	private LongAdder totalCallTime = new LongAdder();
+
+	private volatile long lastCallTime;
+
+	/**
+	 * When the last call ended, in {@link System#nanoTime()}; written before the call is counted.
+	 */
+	private volatile long lastCallEnd;
+
+	public HdrHistogramMonitorStatistics(String name) {
+		this.name = name;
+	}
+
+	void record(long callTime, long callEnd) {
+		lastCallEnd = callEnd;
+		histogram.recordValue(callTime);
+		callCount.increment();
+		totalCallTime.add(callTime);
+		lastCallTime = callTime;
+	}
+
+	long getLastCallEnd() {
+		return lastCallEnd;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getLastCallTime() {
+		return lastCallTime;
+	}
+
+	public long getCallCount() {
+		return callCount.sum();
+	}
+
+	public long getAverageCallTime() {
+		long calls = callCount.sum();
+		return calls == 0 ? 0 : totalCallTime.sum() / calls;
+	}
+
+	public long getTotalCallTime() {
+		return totalCallTime.sum();
+	}
+
+	public long getMinimumCallTime() {
+		return getCallCount() == 0 ? 0 : histogram.getMinValue();
+	}
+
+	public long getMaximumCallTime() {
+		return histogram.getMaxValue();
+	}
+
+	/**
+	 * Returns the call time that the given percentage of the calls did not exceed.
+	 * @param percentile the percentage, e.g. 99.9
+	 * @return the call time, or 0 if there was no call yet
+	 */
+	public long getPercentileCallTime(double percentile) {
+		return histogram.getValueAtPercentile(percentile);
+	}
+
+	public String toString() {
+		return toString(true);
+	}
+
+	/**
+	 * Describes the statistics like JAMon does, optionally with percentiles, which take a pass over the histogram.
+	 */
+	String toString(boolean percentiles) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name).append(": ");
+		sb.append("Last=").append(getLastCallTime()).append(", ");
+		sb.append("Calls=").append(getCallCount()).append(", ");
+		sb.append("Avg=").append(getAverageCallTime()).append(", ");
+		sb.append("Total=").append(getTotalCallTime()).append(", ");
+		sb.append("Min=").append(getMinimumCallTime()).append(", ");
+		sb.append("Max=").append(getMaximumCallTime());
+		if (percentiles) {
+			sb.append(", P50=").append(getPercentileCallTime(50));
+			sb.append(", P99=").append(getPercentileCallTime(99));
+			sb.append(", P999=").append(getPercentileCallTime(99.9));
+		}
+		return sb.toString();
+	}
+}
@@ -3,12 +3,16 @@ package rewards.internal.aspects;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.easymock.EasyMock;
 import org.junit.jupiter.api.Test;
 
+import rewards.internal.monitor.hdr.HdrHistogramMonitorFactory;
 import rewards.internal.monitor.jamon.JamonMonitorFactory;
 
 /**
@@ -33,4 +37,30 @@ public class RepositoryPerformanceLogTest {
 		verify(signature, targetMethod);
 	}
 
+	@Test
+	public void testMonitorCachesTraceName() throws Throwable {
+		HdrHistogramMonitorFactory monitorFactory = new HdrHistogramMonitorFactory();
+		LoggingAspect performanceMonitor = new LoggingAspect(monitorFactory);
+		MethodSignature signature = EasyMock.createMock(MethodSignature.class);
+		ProceedingJoinPoint targetMethod = EasyMock.createMock(ProceedingJoinPoint.class);
+
+		expect(targetMethod.getSignature()).andReturn(signature).times(2);
+		expect(signature.getMethod()).andReturn(Object.class.getMethod("hashCode")).times(2);
+		expect(signature.getDeclaringType()).andReturn(Object.class);
+		expect(signature.getName()).andReturn("hashCode");
+		expect(targetMethod.proceed()).andReturn(new Object()).times(2);
+
+		replay(signature, targetMethod);
+		performanceMonitor.monitor(targetMethod);
+		performanceMonitor.monitor(targetMethod);
+		verify(signature, targetMethod);
+		assertEquals(2, monitorFactory.callCount("Object.hashCode"));
+	}
+
+	@Test
+	public void testInvalidLogSampleRate() {
+		LoggingAspect performanceMonitor = new LoggingAspect(new JamonMonitorFactory());
+		assertThrows(IllegalArgumentException.class, () -> performanceMonitor.setLogSampleRate(0));
+	}
+
 }
@@ -0,0 +1,63 @@
+package rewards.internal.monitor.hdr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the HDR histogram monitors.
+ */
+public class HdrHistogramMonitorFactoryTests {
+
+	private HdrHistogramMonitorFactory monitorFactory = new HdrHistogramMonitorFactory();
+
+	@Test
+	public void monitorsPerMethod() {
+		long before = System.currentTimeMillis();
+		HdrHistogramMonitor first = (HdrHistogramMonitor) monitorFactory.start("AccountRepository.updateBeneficiaries");
+		first.stop();
+		HdrHistogramMonitor second = (HdrHistogramMonitor) monitorFactory.start("AccountRepository.updateBeneficiaries");
+		second.stop();
+		monitorFactory.start("RewardRepository.confirmReward").stop();
+
+		assertSame(first.getStatistics(), second.getStatistics(), "statistics not cached");
+		assertEquals(2, monitorFactory.callCount("AccountRepository.updateBeneficiaries"));
+		assertEquals(1, monitorFactory.callCount("RewardRepository.confirmReward"));
+		assertEquals(3, monitorFactory.getCallsCount());
+		assertEquals(2, monitorFactory.getMonitors().size());
+		long lastAccessTime = monitorFactory.getLastAccessTime().getTime();
+		assertTrue(lastAccessTime >= before - 1 && lastAccessTime <= System.currentTimeMillis() + 1,
+				"last access time " + lastAccessTime + " not within the calls");
+	}
+
+	@Test
+	public void percentiles() {
+		HdrHistogramMonitorStatistics statistics = new HdrHistogramMonitorStatistics("test");
+		for (long callTime = 1; callTime <= 1000; callTime++) {
+			statistics.record(callTime * 1000, System.nanoTime());
+		}
+
+		assertEquals(1000, statistics.getCallCount());
+		assertEquals(500500, statistics.getAverageCallTime());
+		assertEquals(1000000, statistics.getLastCallTime());
+		assertWithinOnePercent(1000, statistics.getMinimumCallTime());
+		assertWithinOnePercent(1000000, statistics.getMaximumCallTime());
+		assertWithinOnePercent(500000, statistics.getPercentileCallTime(50));
+		assertWithinOnePercent(990000, statistics.getPercentileCallTime(99));
+		assertWithinOnePercent(999000, statistics.getPercentileCallTime(99.9));
+	}
+
+	@Test
+	public void unknownMethod() {
+		assertEquals(0, monitorFactory.callCount("unknown"));
+		assertEquals(0, monitorFactory.percentileCallTime("unknown", 99));
+		assertNull(monitorFactory.getLastAccessTime());
+	}
+
+	private void assertWithinOnePercent(long expected, long actual) {
+		assertTrue(Math.abs(expected - actual) <= expected / 100, "expected " + expected + " but was " + actual);
+	}
+}
@@ -1,5 +1,7 @@
 package config;
 
+import java.util.function.Function;
+
 import javax.sql.DataSource;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,12 +9,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import rewards.Dining;
 import rewards.RewardNetwork;
+import rewards.dispatch.PartitionedRewardDispatcher;
+import rewards.ingest.DiningFileIngester;
 import rewards.internal.RewardNetworkImpl;
-import rewards.internal.account.AccountRepository;
 import rewards.internal.account.JdbcAccountRepository;
 import rewards.internal.restaurant.JdbcRestaurantRepository;
 import rewards.internal.restaurant.RestaurantRepository;
+import rewards.internal.reward.BlockConfirmationNumberGenerator;
+import rewards.internal.reward.ConfirmationNumberGenerator;
 import rewards.internal.reward.JdbcRewardRepository;
 import rewards.internal.reward.RewardRepository;
 
@@ -32,8 +38,8 @@ public class RewardsConfig {
 			rewardRepository());
 	}
 	
-	@Bean
-	public AccountRepository accountRepository(){
+	@Bean(initMethod = "loadCreditCardIndex")
+	public JdbcAccountRepository accountRepository(){
 		JdbcAccountRepository repository = new JdbcAccountRepository();
 		repository.setDataSource(dataSource);
 		return repository;
@@ -50,7 +56,35 @@ public class RewardsConfig {
 	public RewardRepository rewardRepository(){
 		JdbcRewardRepository repository = new JdbcRewardRepository();
 		repository.setDataSource(dataSource);
+		repository.setConfirmationNumberGenerator(confirmationNumberGenerator());
 		return repository;
 	}
+
+	@Bean
+	public ConfirmationNumberGenerator confirmationNumberGenerator(){
+		return new BlockConfirmationNumberGenerator(dataSource);
+	}
+
+	@Bean
+	public DiningFileIngester diningFileIngester(){
+		DiningFileIngester ingester = new DiningFileIngester(rewardNetwork());
+		ingester.setPartitionKey(accountPartitionKey());
+		return ingester;
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	public PartitionedRewardDispatcher rewardDispatcher(){
+		PartitionedRewardDispatcher dispatcher = new PartitionedRewardDispatcher(rewardNetwork());
+		dispatcher.setPartitionKey(accountPartitionKey());
+		return dispatcher;
+	}
+
+	/**
+	 * Partitions dinings by account, so two credit cards of an account are never rewarded at the same time.
+	 */
+	private Function<Dining, Long> accountPartitionKey(){
+		JdbcAccountRepository accountRepository = accountRepository();
+		return dining -> accountRepository.findAccountIdByCreditCard(dining.getCreditCardNumber());
+	}
 	
 }
@@ -0,0 +1,141 @@
+package rewards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A summary of a batch of reward transactions. Holds the confirmation of every dining that was rewarded, in the same
+ * order as the dinings were submitted, and reports the dinings that could not be rewarded separately.
+ */
+public class BatchRewardConfirmation {
+
+	private RewardConfirmation[] confirmations;
+
+	private List<Failure> failures = new ArrayList<Failure>();
+
+	/**
+	 * Creates a new, empty batch reward confirmation.
+	 * @param size the number of dinings submitted in the batch
+	 */
+	public BatchRewardConfirmation(int size) {
+		this.confirmations = new RewardConfirmation[size];
+	}
+
+	/**
+	 * Records the confirmation of a dining that was rewarded.
+	 * @param index the position of the dining in the submitted batch
+	 * @param confirmation the reward confirmation
+	 */
+	public void addConfirmation(int index, RewardConfirmation confirmation) {
+		confirmations[index] = confirmation;
+	}
+
+	/**
+	 * Records a dining that could not be rewarded.
+	 * @param index the position of the dining in the submitted batch
+	 * @param dining the dining that could not be rewarded
+	 * @param cause the reason the dining could not be rewarded
+	 */
+	public void addFailure(int index, Dining dining, Exception cause) {
+		failures.add(new Failure(index, dining, cause));
+	}
+
+	/**
+	 * Returns the number of dinings submitted in the batch.
+	 */
+	public int size() {
+		return confirmations.length;
+	}
+
+	/**
+	 * Returns the confirmation for the dining at the given position of the submitted batch.
+	 * @param index the position of the dining in the submitted batch
+	 * @return the reward confirmation, or null if the dining could not be rewarded
+	 */
+	public RewardConfirmation getConfirmation(int index) {
+		return confirmations[index];
+	}
+
+	/**
+	 * Returns the confirmations of all dinings that were rewarded, in the order the dinings were submitted.
+	 */
+	public List<RewardConfirmation> getConfirmations() {
+		List<RewardConfirmation> result = new ArrayList<RewardConfirmation>(confirmations.length - failures.size());
+		for (RewardConfirmation confirmation : confirmations) {
+			if (confirmation != null) {
+				result.add(confirmation);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the dinings that could not be rewarded, in the order the dinings were submitted.
+	 */
+	public List<Failure> getFailures() {
+		return Collections.unmodifiableList(failures);
+	}
+
+	/**
+	 * Returns true if at least one dining of the batch could not be rewarded.
+	 */
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	/**
+	 * A single dining of a batch that could not be rewarded, together with the reason why.
+	 *
+	 * A value object.
+	 */
+	public static class Failure {
+
+		private int index;
+
+		private Dining dining;
+
+		private Exception cause;
+
+		/**
+		 * Creates a new failure.
+		 * @param index the position of the dining in the submitted batch
+		 * @param dining the dining that could not be rewarded
+		 * @param cause the reason the dining could not be rewarded
+		 */
+		public Failure(int index, Dining dining, Exception cause) {
+			this.index = index;
+			this.dining = dining;
+			this.cause = cause;
+		}
+
+		/**
+		 * Returns the position of the dining in the submitted batch.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Returns the dining that could not be rewarded.
+		 */
+		public Dining getDining() {
+			return dining;
+		}
+
+		/**
+		 * Returns the reason the dining could not be rewarded.
+		 */
+		public Exception getCause() {
+			return cause;
+		}
+
+		public String toString() {
+			return "#" + index + " " + dining + " failed: " + cause;
+		}
+	}
+
+	public String toString() {
+		return "Batch of " + confirmations.length + " dinings with " + failures.size() + " failures";
+	}
+}
@@ -1,5 +1,7 @@
 package rewards;
 
+import java.util.List;
+
 /**
  * Rewards a member account for dining at a restaurant.
  * 
@@ -25,4 +27,15 @@ public interface RewardNetwork {
 	 * @return confirmation of the reward
 	 */
 	public RewardConfirmation rewardAccountFor(Dining dining);
+
+	/**
+	 * Reward the accounts for a batch of dinings.
+	 * 
+	 * Each dining is subject to the same eligibility rules as {@link #rewardAccountFor(Dining)}. A dining that is not
+	 * eligible does not prevent the others from being rewarded: it is reported as a failure of the batch instead.
+	 * 
+	 * @param dinings the charges made to credit cards for dining at restaurants
+	 * @return the confirmations of the rewarded dinings, in the order of the given list, plus any per-dining failures
+	 */
+	public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings);
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package rewards.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+/**
+ * Rewards dinings in parallel through a {@link RewardNetwork}, keeping the dinings of a partition key in order.
+ * <p>
+ * A dining goes to one of a fixed number of lanes by the hash of its partition key. Each lane has a single worker
+ * thread, so the dinings of a key are rewarded one after the other in the order dispatched, while different keys run
+ * in parallel. The default key, the credit card number, only keeps the dinings of one credit card from racing: two
+ * credit cards of an account still race on its savings unless the key maps them to the account, see
+ * {@link #setPartitionKey(Function)}.
+ * <p>
+ * Every lane has a bounded queue: when a lane falls behind, dispatching to it waits. The depth of each lane is
+ * available as a metric, see {@link #getLaneDepth(int)}.
+ */
+public class PartitionedRewardDispatcher {
+
+	/**
+	 * The default number of lanes.
+	 */
+	public static final int DEFAULT_LANES = 4;
+
+	/**
+	 * The default number of dinings a lane may have waiting.
+	 */
+	public static final int DEFAULT_LANE_CAPACITY = 1000;
+
+	private static final Logger logger = LoggerFactory.getLogger(PartitionedRewardDispatcher.class);
+
+	private RewardNetwork rewardNetwork;
+
+	private int laneCount = DEFAULT_LANES;
+
+	private int laneCapacity = DEFAULT_LANE_CAPACITY;
+
+	private Function<Dining, ?> partitionKey = Dining::getCreditCardNumber;
+
+	private volatile List<Lane> lanes;
+
+	/**
+	 * Shared by dispatching, taken exclusively by stopping, so no dining is queued after its lane was told to stop.
+	 */
+	private final ReadWriteLock dispatchLock = new ReentrantReadWriteLock();
+
+	private LongAdder dispatched = new LongAdder();
+
+	private LongAdder rewarded = new LongAdder();
+
+	private LongAdder failed = new LongAdder();
+
+	/**
+	 * Creates a new reward dispatcher; {@link #start()} it before dispatching.
+	 * @param rewardNetwork the reward network rewarding the dinings
+	 */
+	public PartitionedRewardDispatcher(RewardNetwork rewardNetwork) {
+		this.rewardNetwork = rewardNetwork;
+	}
+
+	/**
+	 * Sets the number of lanes, i.e. of dinings rewarded in parallel.
+	 * @param lanes the number of lanes, defaults to {@link #DEFAULT_LANES}
+	 */
+	public void setLanes(int lanes) {
+		if (lanes < 1) {
+			throw new IllegalArgumentException("Number of lanes must be positive; your value was " + lanes);
+		}
+		this.laneCount = lanes;
+	}
+
+	/**
+	 * Sets the number of dinings a lane may have waiting before dispatching to it waits.
+	 * @param laneCapacity the lane capacity, defaults to {@link #DEFAULT_LANE_CAPACITY}
+	 */
+	public void setLaneCapacity(int laneCapacity) {
+		if (laneCapacity < 1) {
+			throw new IllegalArgumentException("Lane capacity must be positive; your value was " + laneCapacity);
+		}
+		this.laneCapacity = laneCapacity;
+	}
+
+	/**
+	 * Sets what dinings are kept in order by: dinings with equal keys go to the same lane. Must map all credit cards of
+	 * an account to one key for two credit cards of an account not to race on its savings, e.g. the account id of
+	 * {@link rewards.internal.account.JdbcAccountRepository#findAccountIdByCreditCard(String)}.
+	 * @param partitionKey the partition key of a dining, defaults to its credit card number
+	 */
+	public void setPartitionKey(Function<Dining, ?> partitionKey) {
+		this.partitionKey = partitionKey;
+	}
+
+	/**
+	 * Starts the lanes.
+	 */
+	public synchronized void start() {
+		if (lanes != null) {
+			return;
+		}
+		List<Lane> lanes = new ArrayList<Lane>(laneCount);
+		for (int i = 0; i < laneCount; i++) {
+			Lane lane = new Lane(laneCapacity);
+			Thread thread = new Thread(lane, "reward-lane-" + (i + 1));
+			thread.setDaemon(true);
+			thread.start();
+			lane.thread = thread;
+			lanes.add(lane);
+		}
+		this.lanes = lanes;
+	}
+
+	/**
+	 * Stops the lanes once they have rewarded the dinings dispatched to them. Waits for the dinings being dispatched to
+	 * be queued; dispatching once stopping has begun fails with an {@link IllegalStateException}.
+	 */
+	public synchronized void stop() {
+		List<Lane> lanes;
+		dispatchLock.writeLock().lock();
+		try {
+			lanes = this.lanes;
+			if (lanes == null) {
+				return;
+			}
+			this.lanes = null;
+			for (Lane lane : lanes) {
+				lane.queue.put(Task.END);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} finally {
+			dispatchLock.writeLock().unlock();
+		}
+		try {
+			for (Lane lane : lanes) {
+				lane.thread.join();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Queues a dining on its lane, waiting while the lane is full.
+	 * @param dining the dining to reward
+	 * @return the confirmation of the reward once the dining is rewarded, or the exception it failed with
+	 * @throws IllegalStateException if the dispatcher is not started, or stopping
+	 * @throws InterruptedException if interrupted while waiting for the lane
+	 */
+	public CompletableFuture<RewardConfirmation> dispatch(Dining dining) throws InterruptedException {
+		Task task = new Task(dining);
+		dispatchLock.readLock().lockInterruptibly();
+		try {
+			List<Lane> lanes = this.lanes;
+			if (lanes == null) {
+				throw new IllegalStateException("Reward dispatcher is not started");
+			}
+			lanes.get(laneOf(dining, lanes.size())).add(task);
+		} finally {
+			dispatchLock.readLock().unlock();
+		}
+		dispatched.increment();
+		return task.confirmation;
+	}
+
+	/**
+	 * Returns the lane a dining goes to.
+	 */
+	int laneOf(Dining dining, int laneCount) {
+		Object key = partitionKey.apply(dining);
+		// Spread the hash: keys like credit card numbers differ in their last characters
+		int hash = key.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), laneCount);
+	}
+
+	/**
+	 * Returns the number of lanes.
+	 */
+	public int getLanes() {
+		return laneCount;
+	}
+
+	/**
+	 * Returns the number of dinings in a lane: waiting or being rewarded.
+	 * @param lane the lane, from 0
+	 */
+	public int getLaneDepth(int lane) {
+		List<Lane> lanes = this.lanes;
+		return lanes == null ? 0 : lanes.get(lane).depth.get();
+	}
+
+	/**
+	 * Returns the highest number of dinings a lane has held since it started.
+	 * @param lane the lane, from 0
+	 */
+	public int getPeakLaneDepth(int lane) {
+		List<Lane> lanes = this.lanes;
+		return lanes == null ? 0 : lanes.get(lane).peakDepth.get();
+	}
+
+	/**
+	 * Returns the number of dinings dispatched.
+	 */
+	public long getDispatched() {
+		return dispatched.sum();
+	}
+
+	/**
+	 * Returns the number of dinings rewarded.
+	 */
+	public long getRewarded() {
+		return rewarded.sum();
+	}
+
+	/**
+	 * Returns the number of dinings that failed, e.g. because their credit card is unknown.
+	 */
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/**
+	 * A dining waiting in a lane, with the confirmation to complete.
+	 */
+	private static class Task {
+
+		static final Task END = new Task(null);
+
+		final Dining dining;
+
+		final CompletableFuture<RewardConfirmation> confirmation = new CompletableFuture<RewardConfirmation>();
+
+		Task(Dining dining) {
+			this.dining = dining;
+		}
+	}
+
+	/**
+	 * Rewards the dinings of its queue one after the other until told to stop.
+	 */
+	private class Lane implements Runnable {
+
+		final BlockingQueue<Task> queue;
+
+		final AtomicInteger depth = new AtomicInteger();
+
+		final AtomicInteger peakDepth = new AtomicInteger();
+
+		Thread thread;
+
+		Lane(int capacity) {
+			this.queue = new ArrayBlockingQueue<Task>(capacity);
+		}
+
+		void add(Task task) throws InterruptedException {
+			// Count the dining first, or the lane could take it before it is counted
+			peakDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+			try {
+				queue.put(task);
+			} catch (InterruptedException e) {
+				depth.decrementAndGet();
+				throw e;
+			}
+		}
+
+		public void run() {
+			try {
+				for (Task task = queue.take(); task != Task.END; task = queue.take()) {
+					// Count before completing, so the counts are up to date for whoever waits on the confirmation
+					RewardConfirmation confirmation;
+					try {
+						confirmation = rewardNetwork.rewardAccountFor(task.dining);
+					} catch (RuntimeException e) {
+						logger.debug("Dining {} not rewarded", task.dining, e);
+						failed.increment();
+						depth.decrementAndGet();
+						task.confirmation.completeExceptionally(e);
+						continue;
+					}
+					rewarded.increment();
+					depth.decrementAndGet();
+					task.confirmation.complete(confirmation);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
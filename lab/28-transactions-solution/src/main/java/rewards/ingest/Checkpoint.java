@@ -0,0 +1,113 @@
+package rewards.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The checkpoint file of an ingestion: holds the position in the dining file up to which every dining has been
+ * committed.
+ * <p>
+ * Chunks are committed out of order by parallel workers, so the checkpoint only moves once all dinings before it are
+ * committed. Dinings committed past the checkpoint are rewarded again after a crash; the file is ingested at least
+ * once, not exactly once.
+ * <p>
+ * Thread-safe.
+ */
+class Checkpoint {
+
+	private Path file;
+
+	private Path temporaryFile;
+
+	private long position;
+
+	/**
+	 * The record number of the first dining not committed yet.
+	 */
+	private long base;
+
+	/**
+	 * The committed dinings from {@link #base} on.
+	 */
+	private BitSet committed = new BitSet();
+
+	/**
+	 * The end positions of the committed dinings from {@link #base} on.
+	 */
+	private long[] endPositions = new long[1024];
+
+	/**
+	 * Reads the checkpoint file, if there is one yet.
+	 * @param file the checkpoint file
+	 * @throws IOException if the checkpoint file cannot be read
+	 */
+	Checkpoint(Path file) throws IOException {
+		this.file = file;
+		this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		if (Files.exists(file)) {
+			String content = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+			try {
+				this.position = Long.parseLong(content);
+			} catch (NumberFormatException e) {
+				throw new IOException("Invalid checkpoint file " + file + ": '" + content + "'", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the position up to which every dining is committed.
+	 */
+	synchronized long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Records committed dinings, and moves the checkpoint if they close the gap after it.
+	 * @param recordNumbers the numbers of the dinings in the order read, counting from 0 at the old checkpoint
+	 * @param endPositions the position in the dining file after each dining
+	 * @param size the number of dinings
+	 * @return true if the checkpoint moved
+	 * @throws IOException if the checkpoint file cannot be written
+	 */
+	synchronized boolean commit(long[] recordNumbers, long[] endPositions, int size) throws IOException {
+		for (int i = 0; i < size; i++) {
+			int slot = Math.toIntExact(recordNumbers[i] - base);
+			if (slot >= this.endPositions.length) {
+				this.endPositions = Arrays.copyOf(this.endPositions, Math.max(slot + 1, this.endPositions.length * 2));
+			}
+			committed.set(slot);
+			this.endPositions[slot] = endPositions[i];
+		}
+		int done = committed.nextClearBit(0);
+		if (done == 0) {
+			return false;
+		}
+		position = this.endPositions[done - 1];
+		committed = committed.get(done, Math.max(done, committed.length()));
+		System.arraycopy(this.endPositions, done, this.endPositions, 0, this.endPositions.length - done);
+		base += done;
+		write();
+		return true;
+	}
+
+	/**
+	 * Writes the checkpoint to a temporary file that replaces the checkpoint file, so a crash leaves either the old or
+	 * the new checkpoint.
+	 */
+	private void write() throws IOException {
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(Long.toString(position).getBytes(StandardCharsets.US_ASCII)));
+			channel.force(true);
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,327 @@
+package rewards.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rewards.BatchRewardConfirmation;
+import rewards.Dining;
+import rewards.RewardNetwork;
+
+/**
+ * Rewards the dinings of a dining file, e.g. a merchant's daily settlement file.
+ * <p>
+ * The file is read by the calling thread with a {@link DiningFileReader} and handed to parallel workers in chunks,
+ * each rewarded in one transaction by {@link RewardNetwork#rewardAccountsFor(List)}. A dining goes to the worker its
+ * partition key hashes to, so the dinings of a key are rewarded one after the other. By default the key is the credit
+ * card number, which keeps the dinings of a credit card in order but lets two credit cards of one account race on its
+ * savings: with absolute savings updates, partition by account with {@link #setPartitionKey(Function)}. Every worker
+ * has a bounded queue of chunks: when the workers fall behind, reading waits.
+ * <p>
+ * A chunk is handed over when full, or once chunk size times workers dinings have been read since it was started, so
+ * the rare dinings of a key do not hold the checkpoint back until the end of the file.
+ * <p>
+ * Progress is recorded in a checkpoint file; ingesting the file again after a crash continues from there. See
+ * {@link #getStatistics()} for throughput and lag.
+ * <p>
+ * Ingests one file at a time.
+ */
+public class DiningFileIngester {
+
+	/**
+	 * The default number of dinings rewarded per transaction.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 500;
+
+	/**
+	 * The default number of workers rewarding dinings in parallel.
+	 */
+	public static final int DEFAULT_WORKERS = 4;
+
+	/**
+	 * The default number of chunks a worker may have waiting.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 2;
+
+	private static final Logger logger = LoggerFactory.getLogger(DiningFileIngester.class);
+
+	private static final Chunk END = new Chunk(0);
+
+	private RewardNetwork rewardNetwork;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	private int workers = DEFAULT_WORKERS;
+
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	private Function<Dining, ?> partitionKey = Dining::getCreditCardNumber;
+
+	private volatile IngestionStatistics statistics;
+
+	/**
+	 * Creates a new dining file ingester.
+	 * @param rewardNetwork the reward network rewarding the dinings
+	 */
+	public DiningFileIngester(RewardNetwork rewardNetwork) {
+		this.rewardNetwork = rewardNetwork;
+	}
+
+	/**
+	 * Sets the number of dinings rewarded per transaction.
+	 * @param chunkSize the chunk size, defaults to {@link #DEFAULT_CHUNK_SIZE}
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive; your value was " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Sets the number of workers rewarding dinings in parallel.
+	 * @param workers the number of workers, defaults to {@link #DEFAULT_WORKERS}
+	 */
+	public void setWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Number of workers must be positive; your value was " + workers);
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * Sets the number of chunks a worker may have waiting before reading the file waits for the worker.
+	 * @param queueCapacity the queue capacity, defaults to {@link #DEFAULT_QUEUE_CAPACITY}
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity < 1) {
+			throw new IllegalArgumentException("Queue capacity must be positive; your value was " + queueCapacity);
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets what dinings are kept in order by: dinings with equal keys go to the same worker. Must map all credit cards
+	 * of an account to one key for two credit cards of an account not to race on its savings, e.g. the account id of
+	 * {@link rewards.internal.account.JdbcAccountRepository#findAccountIdByCreditCard(String)}.
+	 * @param partitionKey the partition key of a dining, defaults to its credit card number
+	 */
+	public void setPartitionKey(Function<Dining, ?> partitionKey) {
+		this.partitionKey = partitionKey;
+	}
+
+	/**
+	 * Returns the statistics of the ingestion running, or of the last one if none is running.
+	 * @return the statistics, or null if no file has been ingested yet
+	 */
+	public IngestionStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Rewards the dinings of a dining file, starting after the dinings committed according to the checkpoint file.
+	 * Once the whole file is ingested the checkpoint is at its end, so ingesting it again rewards nothing.
+	 * @param file the dining file
+	 * @param checkpointFile the checkpoint file; created if it does not exist
+	 * @return the statistics of the ingestion
+	 * @throws IOException if a file cannot be read or written
+	 * @throws IllegalArgumentException if the dining file holds a malformed record; the dinings before it are rewarded
+	 * @throws RuntimeException if rewarding a chunk fails; the ingestion stops
+	 */
+	public synchronized IngestionStatistics ingest(Path file, Path checkpointFile) throws IOException {
+		Checkpoint checkpoint = new Checkpoint(checkpointFile);
+		IngestionStatistics statistics = new IngestionStatistics(checkpoint.getPosition());
+		this.statistics = statistics;
+		AtomicReference<Exception> failure = new AtomicReference<Exception>();
+		List<BlockingQueue<Chunk>> queues = new ArrayList<BlockingQueue<Chunk>>(workers);
+		ExecutorService executor = Executors.newFixedThreadPool(workers, new WorkerThreadFactory());
+		for (int i = 0; i < workers; i++) {
+			BlockingQueue<Chunk> queue = new ArrayBlockingQueue<Chunk>(queueCapacity);
+			queues.add(queue);
+			executor.execute(new Worker(queue, checkpoint, statistics, failure));
+		}
+		Chunk[] chunks = new Chunk[workers];
+		long maxChunkAge = (long) chunkSize * workers;
+		try (DiningFileReader reader = new DiningFileReader(file, checkpoint.getPosition())) {
+			long recordNumber = 0;
+			for (Dining dining = reader.read(); dining != null && failure.get() == null; dining = reader.read()) {
+				statistics.diningRead();
+				int lane = Math.floorMod(partitionKey.apply(dining).hashCode(), workers);
+				if (chunks[lane] == null) {
+					chunks[lane] = new Chunk(chunkSize);
+				}
+				chunks[lane].add(dining, recordNumber++, reader.getOffset());
+				if (chunks[lane].isFull()) {
+					dispatch(chunks[lane], queues.get(lane), failure);
+					chunks[lane] = null;
+				}
+				if (recordNumber % chunkSize == 0) {
+					// hand over the chunks of sparse lanes, which would keep the checkpoint at their first dining
+					for (int i = 0; i < workers; i++) {
+						if (chunks[i] != null && recordNumber - chunks[i].getFirstRecordNumber() >= maxChunkAge) {
+							dispatch(chunks[i], queues.get(i), failure);
+							chunks[i] = null;
+						}
+					}
+				}
+			}
+			for (int lane = 0; lane < workers; lane++) {
+				if (chunks[lane] != null) {
+					dispatch(chunks[lane], queues.get(lane), failure);
+				}
+			}
+		} finally {
+			stop(executor, queues, failure);
+			statistics.finished();
+		}
+		if (failure.get() != null) {
+			Exception cause = failure.get();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw (RuntimeException) cause;
+		}
+		logger.info("Ingested {}: {}", file, statistics);
+		return statistics;
+	}
+
+	/**
+	 * Hands a chunk to its worker, waiting while the worker's queue is full; drops it if a worker failed.
+	 */
+	private void dispatch(Chunk chunk, BlockingQueue<Chunk> queue, AtomicReference<Exception> failure)
+			throws IOException {
+		try {
+			while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+				if (failure.get() != null) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while ingesting", e);
+		}
+	}
+
+	/**
+	 * Stops the workers once they are done with the chunks queued, or with their current chunk if a worker failed.
+	 */
+	private void stop(ExecutorService executor, List<BlockingQueue<Chunk>> queues, AtomicReference<Exception> failure)
+			throws IOException {
+		try {
+			for (BlockingQueue<Chunk> queue : queues) {
+				while (!queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+					if (failure.get() != null) {
+						queue.clear();
+					}
+				}
+			}
+			executor.shutdown();
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				logger.info("Waiting for dining ingestion workers to finish");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+			throw new IOException("Interrupted while ingesting", e);
+		}
+	}
+
+	/**
+	 * Dinings rewarded in one transaction, with their position in the file.
+	 */
+	private static class Chunk {
+
+		private List<Dining> dinings;
+
+		private long[] recordNumbers;
+
+		private long[] endPositions;
+
+		Chunk(int size) {
+			dinings = new ArrayList<Dining>(size);
+			recordNumbers = new long[size];
+			endPositions = new long[size];
+		}
+
+		void add(Dining dining, long recordNumber, long endPosition) {
+			recordNumbers[dinings.size()] = recordNumber;
+			endPositions[dinings.size()] = endPosition;
+			dinings.add(dining);
+		}
+
+		boolean isFull() {
+			return dinings.size() == recordNumbers.length;
+		}
+
+		long getFirstRecordNumber() {
+			return recordNumbers[0];
+		}
+	}
+
+	/**
+	 * Rewards the chunks of one queue until it is told to stop or any worker failed.
+	 */
+	private class Worker implements Runnable {
+
+		private BlockingQueue<Chunk> queue;
+
+		private Checkpoint checkpoint;
+
+		private IngestionStatistics statistics;
+
+		private AtomicReference<Exception> failure;
+
+		Worker(BlockingQueue<Chunk> queue, Checkpoint checkpoint, IngestionStatistics statistics,
+				AtomicReference<Exception> failure) {
+			this.queue = queue;
+			this.checkpoint = checkpoint;
+			this.statistics = statistics;
+			this.failure = failure;
+		}
+
+		public void run() {
+			try {
+				for (Chunk chunk = queue.take(); chunk != END && failure.get() == null; chunk = queue.take()) {
+					BatchRewardConfirmation result = rewardNetwork.rewardAccountsFor(chunk.dinings);
+					for (BatchRewardConfirmation.Failure notRewarded : result.getFailures()) {
+						logger.warn("Dining ending at byte {} not rewarded: {}", chunk.endPositions[notRewarded.getIndex()],
+								notRewarded);
+					}
+					statistics.chunkCommitted(result.size() - result.getFailures().size(),
+							result.getFailures().size());
+					if (checkpoint.commit(chunk.recordNumbers, chunk.endPositions, chunk.dinings.size())) {
+						statistics.checkpointed(checkpoint.getPosition());
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				logger.error("Dining ingestion failed", e);
+				failure.compareAndSet(null, e);
+			}
+		}
+	}
+
+	private static class WorkerThreadFactory implements java.util.concurrent.ThreadFactory {
+
+		private AtomicInteger count = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "dining-ingester-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
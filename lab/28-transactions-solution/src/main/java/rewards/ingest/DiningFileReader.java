@@ -0,0 +1,222 @@
+package rewards.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import rewards.Dining;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Reads the dinings of a dining file, one dining per line:
+ *
+ * <pre>
+ * amount,creditCardNumber,merchantNumber,yyyy-MM-dd
+ * 100.00,1234123412341234,1234567890,2022-12-29
+ * </pre>
+ *
+ * Lines end with <code>\n</code> or <code>\r\n</code>; blank lines are skipped. The file is streamed through a fixed
+ * buffer and the records are parsed in place, so a file of any size is read with constant memory and only the two
+ * strings a Dining needs are created per line.
+ * <p>
+ * Not thread-safe.
+ */
+public class DiningFileReader implements Closeable {
+
+	/**
+	 * The default size of the read buffer, which is also the longest line that can be read.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private static final int MAX_AMOUNT_DIGITS = 17;
+
+	private FileChannel channel;
+
+	private ByteBuffer buffer;
+
+	private byte[] bytes;
+
+	private long offset;
+
+	private boolean endOfFile;
+
+	/**
+	 * Opens a dining file for reading.
+	 * @param file the dining file
+	 * @param offset the position to start reading at, e.g. a checkpoint; must be the start of a line
+	 * @throws IOException if the file cannot be opened
+	 */
+	public DiningFileReader(Path file, long offset) throws IOException {
+		this(file, offset, DEFAULT_BUFFER_SIZE);
+	}
+
+	DiningFileReader(Path file, long offset, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		if (offset > channel.size()) {
+			channel.close();
+			throw new IllegalArgumentException("Offset " + offset + " is beyond the end of " + file);
+		}
+		this.channel.position(offset);
+		this.offset = offset;
+		this.bytes = new byte[bufferSize];
+		this.buffer = ByteBuffer.wrap(bytes);
+		this.buffer.flip();
+	}
+
+	/**
+	 * Reads the next dining.
+	 * @return the dining, or null at the end of the file
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the line is not a valid dining record
+	 */
+	public Dining read() throws IOException {
+		while (true) {
+			int start = buffer.position();
+			int limit = buffer.limit();
+			int end = indexOf((byte) '\n', start, limit);
+			int next = end + 1;
+			if (end < 0) {
+				if (!endOfFile) {
+					fill();
+					continue;
+				}
+				if (start == limit) {
+					return null;
+				}
+				// the last line has no line terminator
+				end = limit;
+				next = limit;
+			}
+			long lineOffset = offset;
+			buffer.position(next);
+			offset += next - start;
+			if (end > start && bytes[end - 1] == '\r') {
+				end--;
+			}
+			if (end > start) {
+				return parse(start, end, lineOffset);
+			}
+		}
+	}
+
+	/**
+	 * Returns the position in the file just after the last dining read, where reading would continue after a restart.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void fill() throws IOException {
+		buffer.compact();
+		if (!buffer.hasRemaining()) {
+			throw new IOException("Line at byte " + offset + " is longer than " + bytes.length + " bytes");
+		}
+		if (channel.read(buffer) < 0) {
+			endOfFile = true;
+		}
+		buffer.flip();
+	}
+
+	private Dining parse(int start, int end, long lineOffset) {
+		int amountEnd = indexOf((byte) ',', start, end);
+		int creditCardEnd = amountEnd < 0 ? -1 : indexOf((byte) ',', amountEnd + 1, end);
+		int merchantEnd = creditCardEnd < 0 ? -1 : indexOf((byte) ',', creditCardEnd + 1, end);
+		if (merchantEnd < 0 || merchantEnd == creditCardEnd + 1 || creditCardEnd == amountEnd + 1) {
+			throw malformed(start, end, lineOffset);
+		}
+		MonetaryAmount amount = parseAmount(start, amountEnd);
+		SimpleDate date = parseDate(merchantEnd + 1, end);
+		if (amount == null || date == null) {
+			throw malformed(start, end, lineOffset);
+		}
+		String creditCardNumber = new String(bytes, amountEnd + 1, creditCardEnd - amountEnd - 1,
+				StandardCharsets.US_ASCII);
+		String merchantNumber = new String(bytes, creditCardEnd + 1, merchantEnd - creditCardEnd - 1,
+				StandardCharsets.US_ASCII);
+		return new Dining(amount, creditCardNumber, merchantNumber, date);
+	}
+
+	/**
+	 * Parses an amount like 100, 100.5 or 100.50; returns null if it is not one.
+	 */
+	private MonetaryAmount parseAmount(int start, int end) {
+		long unscaled = 0;
+		int digits = 0;
+		int scale = -1;
+		for (int i = start; i < end; i++) {
+			byte b = bytes[i];
+			if (b == '.' && scale < 0) {
+				scale = 0;
+			} else if (b >= '0' && b <= '9' && digits < MAX_AMOUNT_DIGITS) {
+				unscaled = unscaled * 10 + (b - '0');
+				digits++;
+				if (scale >= 0) {
+					scale++;
+				}
+			} else {
+				return null;
+			}
+		}
+		if (digits == 0 || scale == 0 || scale > 2) {
+			return null;
+		}
+		return new MonetaryAmount(BigDecimal.valueOf(unscaled, Math.max(scale, 0)));
+	}
+
+	/**
+	 * Parses a date like 2022-12-29; returns null if it is not one.
+	 */
+	private SimpleDate parseDate(int start, int end) {
+		if (end - start != 10 || bytes[start + 4] != '-' || bytes[start + 7] != '-') {
+			return null;
+		}
+		int year = parseNumber(start, start + 4);
+		int month = parseNumber(start + 5, start + 7);
+		int day = parseNumber(start + 8, start + 10);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+			return null;
+		}
+		return new SimpleDate(month, day, year);
+	}
+
+	/**
+	 * Parses the digits, returning -1 if there is something else.
+	 */
+	private int parseNumber(int start, int end) {
+		int number = 0;
+		for (int i = start; i < end; i++) {
+			byte b = bytes[i];
+			if (b < '0' || b > '9') {
+				return -1;
+			}
+			number = number * 10 + (b - '0');
+		}
+		return number;
+	}
+
+	private int indexOf(byte b, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (bytes[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private IllegalArgumentException malformed(int start, int end, long lineOffset) {
+		String line = new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+		return new IllegalArgumentException("Malformed dining record at byte " + lineOffset + ": '" + line + "'");
+	}
+
+}
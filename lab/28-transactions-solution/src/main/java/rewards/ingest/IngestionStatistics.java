@@ -0,0 +1,111 @@
+package rewards.ingest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The progress of the ingestion of a dining file. Updated while the file is ingested, so it can be polled to report
+ * throughput and lag as metrics.
+ */
+public class IngestionStatistics {
+
+	private LongAdder diningsRead = new LongAdder();
+
+	private LongAdder diningsRewarded = new LongAdder();
+
+	private LongAdder diningsNotRewarded = new LongAdder();
+
+	private LongAdder chunksCommitted = new LongAdder();
+
+	private volatile long checkpoint;
+
+	private long startTime = System.nanoTime();
+
+	private volatile long endTime;
+
+	IngestionStatistics(long checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Returns the number of dinings read from the file.
+	 */
+	public long getDiningsRead() {
+		return diningsRead.sum();
+	}
+
+	/**
+	 * Returns the number of dinings rewarded.
+	 */
+	public long getDiningsRewarded() {
+		return diningsRewarded.sum();
+	}
+
+	/**
+	 * Returns the number of dinings that were processed but not eligible for a reward, e.g. because their credit card
+	 * is unknown.
+	 */
+	public long getDiningsNotRewarded() {
+		return diningsNotRewarded.sum();
+	}
+
+	/**
+	 * Returns the number of chunks of dinings committed.
+	 */
+	public long getChunksCommitted() {
+		return chunksCommitted.sum();
+	}
+
+	/**
+	 * Returns the number of dinings read but not processed yet.
+	 */
+	public long getLag() {
+		return getDiningsRead() - getDiningsRewarded() - getDiningsNotRewarded();
+	}
+
+	/**
+	 * Returns the position in the file up to which every dining has been committed; a restart continues from here.
+	 */
+	public long getCheckpoint() {
+		return checkpoint;
+	}
+
+	/**
+	 * Returns the number of dinings processed per second since the ingestion started.
+	 */
+	public double getThroughput() {
+		long end = endTime != 0 ? endTime : System.nanoTime();
+		double seconds = (double) (end - startTime) / TimeUnit.SECONDS.toNanos(1);
+		return seconds > 0 ? (getDiningsRewarded() + getDiningsNotRewarded()) / seconds : 0;
+	}
+
+	/**
+	 * Returns true once the ingestion has finished, successfully or not.
+	 */
+	public boolean isFinished() {
+		return endTime != 0;
+	}
+
+	void diningRead() {
+		diningsRead.increment();
+	}
+
+	void chunkCommitted(int rewarded, int notRewarded) {
+		diningsRewarded.add(rewarded);
+		diningsNotRewarded.add(notRewarded);
+		chunksCommitted.increment();
+	}
+
+	void checkpointed(long checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	void finished() {
+		endTime = System.nanoTime();
+	}
+
+	public String toString() {
+		return "Read " + getDiningsRead() + " dinings, rewarded " + getDiningsRewarded() + ", not rewarded "
+				+ getDiningsNotRewarded() + ", lag " + getLag() + ", checkpoint at byte " + checkpoint;
+	}
+}
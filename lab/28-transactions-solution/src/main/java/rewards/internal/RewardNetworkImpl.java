@@ -1,8 +1,18 @@
 package rewards.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.transaction.annotation.Transactional;
 
 import rewards.AccountContribution;
+import rewards.BatchRewardConfirmation;
 import rewards.Dining;
 import rewards.RewardConfirmation;
 import rewards.RewardNetwork;
@@ -24,6 +34,13 @@ import common.money.MonetaryAmount;
  */
 public class RewardNetworkImpl implements RewardNetwork {
 
+	/**
+	 * The default number of dinings loaded and written together by {@link #rewardAccountsFor(List)}.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
 	private AccountRepository accountRepository;
 
 	private RestaurantRepository restaurantRepository;
@@ -43,6 +60,18 @@ public class RewardNetworkImpl implements RewardNetwork {
 		this.rewardRepository = rewardRepository;
 	}
 
+	/**
+	 * Sets the number of dinings whose accounts and restaurants are loaded, and whose rewards are written, together
+	 * when rewarding a batch of dinings. Bounds the size of the generated IN clauses and JDBC batches.
+	 * @param batchSize the chunk size, defaults to {@link #DEFAULT_BATCH_SIZE}
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive; your value was " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
 	@Transactional
 	public RewardConfirmation rewardAccountFor(Dining dining) {
 		Account account = accountRepository.findByCreditCard(dining.getCreditCardNumber());
@@ -52,4 +81,69 @@ public class RewardNetworkImpl implements RewardNetwork {
 		accountRepository.updateBeneficiaries(account);
 		return rewardRepository.confirmReward(contribution, dining);
 	}
+
+	@Transactional
+	public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings) {
+		BatchRewardConfirmation result = new BatchRewardConfirmation(dinings.size());
+		for (int from = 0; from < dinings.size(); from += batchSize) {
+			int to = Math.min(from + batchSize, dinings.size());
+			rewardChunk(dinings.subList(from, to), from, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Rewards a chunk of a batch: loads all its accounts and restaurants with one query each, applies the
+	 * contributions in memory and then writes all beneficiary updates and reward records as JDBC batches.
+	 * @param chunk the dinings of the chunk
+	 * @param offset the position of the first dining of the chunk in the whole batch
+	 * @param result collects the confirmations and failures of the whole batch
+	 */
+	private void rewardChunk(List<Dining> chunk, int offset, BatchRewardConfirmation result) {
+		Set<String> creditCardNumbers = new LinkedHashSet<String>();
+		Set<String> merchantNumbers = new LinkedHashSet<String>();
+		for (Dining dining : chunk) {
+			creditCardNumbers.add(dining.getCreditCardNumber());
+			merchantNumbers.add(dining.getMerchantNumber());
+		}
+		Map<String, Account> accounts = accountRepository.findByCreditCards(creditCardNumbers);
+		Map<String, Restaurant> restaurants = restaurantRepository.findByMerchantNumbers(merchantNumbers);
+
+		// the same account may dine several times in a chunk - its contributions accumulate on one object
+		Set<Account> rewardedAccounts = Collections.newSetFromMap(new IdentityHashMap<Account, Boolean>());
+		List<AccountContribution> contributions = new ArrayList<AccountContribution>(chunk.size());
+		List<Dining> rewardedDinings = new ArrayList<Dining>(chunk.size());
+		List<Integer> rewardedIndexes = new ArrayList<Integer>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			Dining dining = chunk.get(i);
+			Account account = accounts.get(dining.getCreditCardNumber());
+			if (account == null) {
+				result.addFailure(offset + i, dining, new EmptyResultDataAccessException(
+						"No account for credit card '" + dining.getCreditCardNumber() + "'", 1));
+				continue;
+			}
+			Restaurant restaurant = restaurants.get(dining.getMerchantNumber());
+			if (restaurant == null) {
+				result.addFailure(offset + i, dining, new EmptyResultDataAccessException(
+						"No restaurant for merchant number '" + dining.getMerchantNumber() + "'", 1));
+				continue;
+			}
+			try {
+				MonetaryAmount amount = restaurant.calculateBenefitFor(account, dining);
+				contributions.add(account.makeContribution(amount));
+			} catch (RuntimeException e) {
+				result.addFailure(offset + i, dining, e);
+				continue;
+			}
+			rewardedAccounts.add(account);
+			rewardedDinings.add(dining);
+			rewardedIndexes.add(offset + i);
+		}
+
+		accountRepository.updateBeneficiaries(rewardedAccounts);
+		List<RewardConfirmation> confirmations = rewardRepository.confirmRewards(contributions, rewardedDinings);
+		for (int i = 0; i < confirmations.size(); i++) {
+			result.addConfirmation(rewardedIndexes.get(i), confirmations.get(i));
+		}
+	}
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package rewards.internal;
 
+import java.util.List;
+
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import rewards.AccountContribution;
+import rewards.BatchRewardConfirmation;
 import rewards.Dining;
 import rewards.RewardConfirmation;
 import rewards.RewardNetwork;
@@ -31,6 +34,11 @@ public class RewardNetworkImplRequiresNew implements RewardNetwork {
 
 	private RewardRepository rewardRepository;
 
+	/**
+	 * Rewards batches of dinings: the batch logic is reused, while the transaction is demarcated by this class.
+	 */
+	private RewardNetworkImpl batchRewardNetwork;
+
 	/**
 	 * Creates a new reward network.
 	 * @param accountRepository the repository for loading accounts to reward
@@ -42,6 +50,16 @@ public class RewardNetworkImplRequiresNew implements RewardNetwork {
 		this.accountRepository = accountRepository;
 		this.restaurantRepository = restaurantRepository;
 		this.rewardRepository = rewardRepository;
+		this.batchRewardNetwork = new RewardNetworkImpl(accountRepository, restaurantRepository, rewardRepository);
+	}
+
+	/**
+	 * Sets the number of dinings loaded and written together when rewarding a batch of dinings.
+	 * @param batchSize the chunk size, defaults to {@link RewardNetworkImpl#DEFAULT_BATCH_SIZE}
+	 * @see RewardNetworkImpl#setBatchSize(int)
+	 */
+	public void setBatchSize(int batchSize) {
+		batchRewardNetwork.setBatchSize(batchSize);
 	}
 
 	@Transactional(propagation=Propagation.REQUIRES_NEW)
@@ -53,4 +71,9 @@ public class RewardNetworkImplRequiresNew implements RewardNetwork {
 		accountRepository.updateBeneficiaries(account);
 		return rewardRepository.confirmReward(contribution, dining);
 	}
+
+	@Transactional(propagation=Propagation.REQUIRES_NEW)
+	public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings) {
+		return batchRewardNetwork.rewardAccountsFor(dinings);
+	}
 }
\ No newline at end of file
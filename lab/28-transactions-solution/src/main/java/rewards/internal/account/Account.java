@@ -28,6 +28,16 @@ public class Account extends Entity {
 
 	private Set<Beneficiary> beneficiaries = new HashSet<Beneficiary>();
 
+	/**
+	 * Whether the beneficiary allocations add up to 100%; null until checked after the beneficiaries last changed.
+	 */
+	private Boolean valid;
+
+	/**
+	 * The version of the account row as loaded or last written; only kept by a versioned repository.
+	 */
+	private int version;
+
 	@SuppressWarnings("unused")
 	private Account() {
 	}
@@ -71,26 +81,24 @@ public class Account extends Entity {
 	 */
 	public void addBeneficiary(String beneficiaryName, Percentage allocationPercentage) {
 		beneficiaries.add(new Beneficiary(beneficiaryName, allocationPercentage));
+		valid = null;
 	}
 
 	/**
-	 * Validation check that returns true only if the total beneficiary allocation adds up to 100%.
+	 * Validation check that returns true only if the total beneficiary allocation adds up to 100%. The result is
+	 * remembered until the beneficiaries change, so a contribution does not re-validate the account.
 	 */
 	public boolean isValid() {
-		Percentage totalPercentage = Percentage.zero();
-		for (Beneficiary b : beneficiaries) {
-			try {
-				totalPercentage = totalPercentage.add(b.getAllocationPercentage());
-			} catch (IllegalArgumentException e) {
-				// total would have been over 100% - return invalid
-				return false;
+		Boolean valid = this.valid;
+		if (valid == null) {
+			int totalHundredths = 0;
+			for (Beneficiary b : beneficiaries) {
+				totalHundredths += b.getAllocationPercentage().asHundredths();
 			}
+			valid = totalHundredths == Percentage.oneHundred().asHundredths();
+			this.valid = valid;
 		}
-		if (totalPercentage.equals(Percentage.oneHundred())) {
-			return true;
-		} else {
-			return false;
-		}
+		return valid;
 	}
 
 	/**
@@ -155,6 +163,23 @@ public class Account extends Entity {
 	 */
 	void restoreBeneficiary(Beneficiary beneficiary) {
 		beneficiaries.add(beneficiary);
+		valid = null;
+	}
+
+	/**
+	 * Returns the version of the account row as loaded or last written. Should only be called by the repository
+	 * persisting this account.
+	 */
+	int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Sets the version of the account row. Should only be called by the repository persisting this account.
+	 * @param version the version
+	 */
+	void setVersion(int version) {
+		this.version = version;
 	}
 
 	public String toString() {
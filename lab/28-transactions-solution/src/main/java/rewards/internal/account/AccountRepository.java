@@ -1,5 +1,8 @@
 package rewards.internal.account;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Loads account aggregates. Called by the reward network to find and reconstitute Account entities from an external
  * form such as a set of RDMS rows.
@@ -15,6 +18,14 @@ public interface AccountRepository {
 	 */
 	public Account findByCreditCard(String creditCardNumber);
 
+	/**
+	 * Load the accounts of a batch of credit cards in a single round-trip. Credit cards belonging to the same account
+	 * are mapped to the same account object.
+	 * @param creditCardNumbers the credit card numbers
+	 * @return the account objects keyed by credit card number; unknown credit cards have no entry
+	 */
+	public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers);
+
 	/**
 	 * Updates the 'savings' of each account beneficiary. The new savings balance contains the amount distributed for a
 	 * contribution made during a reward transaction.
@@ -22,8 +33,17 @@ public interface AccountRepository {
 	 * Note: use of an object-relational mapper (ORM) with support for transparent-persistence like Hibernate (or the
 	 * new Java Persistence API (JPA)) would remove the need for this explicit update operation as the ORM would take
 	 * care of applying relational updates to a modified Account entity automatically.
+	 * <p>
+	 * Beneficiaries whose savings did not change, e.g. because of a zero contribution, are not written.
 	 * @param account the account whose beneficiary savings have changed
 	 */
 	public void updateBeneficiaries(Account account);
 
+	/**
+	 * Updates the 'savings' of each beneficiary of a batch of accounts in a single round-trip.
+	 * @param accounts the accounts whose beneficiary savings have changed
+	 * @see #updateBeneficiaries(Account)
+	 */
+	public void updateBeneficiaries(Collection<Account> accounts);
+
 }
\ No newline at end of file
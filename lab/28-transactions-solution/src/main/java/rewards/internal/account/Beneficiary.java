@@ -16,6 +16,11 @@ public class Beneficiary extends Entity {
 
 	private MonetaryAmount savings = MonetaryAmount.valueOf("0.00");
 
+	/**
+	 * The savings balance as last read from or written to the database; null if never stored.
+	 */
+	private MonetaryAmount storedSavings;
+
 	@SuppressWarnings("unused")
 	private Beneficiary() {
 	}
@@ -42,6 +47,7 @@ public class Beneficiary extends Entity {
 		this.name = name;
 		this.allocationPercentage = allocationPercentage;
 		this.savings = savings;
+		this.storedSavings = savings;
 	}
 
 	/**
@@ -73,6 +79,38 @@ public class Beneficiary extends Entity {
 		savings = savings.add(amount);
 	}
 
+	/**
+	 * Returns true if the savings balance differs from the one last stored, for example after a non-zero credit.
+	 * Marked package-private: only the repository persisting the account needs to know.
+	 */
+	boolean isSavingsChanged() {
+		return !savings.equals(storedSavings);
+	}
+
+	/**
+	 * Returns how much the savings balance changed since it was last stored: the sum of the credits since. Marked
+	 * package-private: only the repository persisting the account needs to know.
+	 */
+	MonetaryAmount getSavingsChange() {
+		return storedSavings == null ? savings : savings.subtract(storedSavings);
+	}
+
+	/**
+	 * Credits an amount that is already stored, though not in the savings balance read, e.g. savings written behind.
+	 * @param amount the amount to credit
+	 */
+	void creditStored(MonetaryAmount amount) {
+		savings = savings.add(amount);
+		storedSavings = storedSavings == null ? amount : storedSavings.add(amount);
+	}
+
+	/**
+	 * Records that the current savings balance has been written to the database.
+	 */
+	void savingsStored() {
+		storedSavings = savings;
+	}
+
 	public String toString() {
 		return "name = '" + name + "', allocationPercentage = " + allocationPercentage + ", savings = " + savings + ")";
 	}
@@ -0,0 +1,202 @@
+package rewards.internal.account;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index of credit card numbers to the ids of the accounts they belong to. Lets the account repository
+ * load an account by its primary key instead of joining T_ACCOUNT_CREDIT_CARD for every reward.
+ * <p>
+ * Credit card numbers of up to 17 digits, like the 16-digit numbers of T_ACCOUNT_CREDIT_CARD, are packed into a
+ * <code>long</code> together with their length and kept in an open-addressing table of primitives: a card costs 16 to
+ * 32 bytes of index and lookups allocate nothing. Other numbers go to an ordinary map.
+ * <p>
+ * Thread-safe: lookups share a read lock, changes take the write lock.
+ */
+class CreditCardIndex {
+
+	/**
+	 * Returned by {@link #get(String)} for a credit card that is not indexed.
+	 */
+	static final long NO_ACCOUNT = -1;
+
+	private static final int MAX_PACKED_DIGITS = 17;
+
+	/**
+	 * Marks a free slot; no packed number is zero because the length is part of it.
+	 */
+	private static final long FREE = 0;
+
+	private long[] keys;
+
+	private long[] accountIds;
+
+	private int size;
+
+	private Map<String, Long> unpackedAccountIds = new HashMap<String, Long>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	CreditCardIndex() {
+		allocate(16);
+	}
+
+	/**
+	 * Returns the id of the account the credit card belongs to, or {@link #NO_ACCOUNT} if it is not indexed.
+	 */
+	long get(String creditCardNumber) {
+		long key = pack(creditCardNumber);
+		lock.readLock().lock();
+		try {
+			if (key == FREE) {
+				Long accountId = unpackedAccountIds.get(creditCardNumber);
+				return accountId == null ? NO_ACCOUNT : accountId;
+			}
+			int slot = find(key);
+			return keys[slot] == FREE ? NO_ACCOUNT : accountIds[slot];
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Indexes a credit card, replacing the account it was indexed for before.
+	 */
+	void put(String creditCardNumber, long accountId) {
+		long key = pack(creditCardNumber);
+		lock.writeLock().lock();
+		try {
+			if (key == FREE) {
+				unpackedAccountIds.put(creditCardNumber, accountId);
+				return;
+			}
+			int slot = find(key);
+			if (keys[slot] == FREE) {
+				if (++size > keys.length / 2) {
+					grow();
+					slot = find(key);
+				}
+				keys[slot] = key;
+			}
+			accountIds[slot] = accountId;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a credit card from the index, e.g. because it turned out to be stale.
+	 */
+	void remove(String creditCardNumber) {
+		long key = pack(creditCardNumber);
+		lock.writeLock().lock();
+		try {
+			if (key == FREE) {
+				unpackedAccountIds.remove(creditCardNumber);
+				return;
+			}
+			int slot = find(key);
+			if (keys[slot] == FREE) {
+				return;
+			}
+			// shift later entries of the same probe sequence back, so lookups never stop at the hole early
+			int mask = keys.length - 1;
+			int hole = slot;
+			for (int next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+				int home = home(keys[next]);
+				if (((next - home) & mask) >= ((next - hole) & mask)) {
+					keys[hole] = keys[next];
+					accountIds[hole] = accountIds[next];
+					hole = next;
+				}
+			}
+			keys[hole] = FREE;
+			size--;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes all credit cards from the index.
+	 */
+	void clear() {
+		lock.writeLock().lock();
+		try {
+			allocate(16);
+			size = 0;
+			unpackedAccountIds.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of credit cards indexed.
+	 */
+	int size() {
+		lock.readLock().lock();
+		try {
+			return size + unpackedAccountIds.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the slot holding the key, or the free slot where it belongs.
+	 */
+	private int find(long key) {
+		int mask = keys.length - 1;
+		int slot = home(key);
+		while (keys[slot] != FREE && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int home(long key) {
+		// Fibonacci hashing spreads the mostly sequential card numbers over the table
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(keys.length)));
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		long[] oldAccountIds = accountIds;
+		allocate(oldKeys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				accountIds[slot] = oldAccountIds[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		accountIds = new long[capacity];
+	}
+
+	/**
+	 * Packs a credit card number of up to 17 digits into a positive long holding its value and its length (so
+	 * "0123" and "123" differ), or returns {@link #FREE} if the number cannot be packed.
+	 */
+	private static long pack(String creditCardNumber) {
+		int length = creditCardNumber.length();
+		if (length == 0 || length > MAX_PACKED_DIGITS) {
+			return FREE;
+		}
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			char c = creditCardNumber.charAt(i);
+			if (c < '0' || c > '9') {
+				return FREE;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value * 32 + length;
+	}
+}
@@ -2,43 +2,371 @@ package rewards.internal.account;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import common.money.MonetaryAmount;
 import common.money.Percentage;
 
 /**
  * Loads accounts from a data source using the JDBC API.
+ * <p>
+ * By default the savings of the beneficiaries are written as absolute balances, so two transactions rewarding the same
+ * account at the same time lose one of their credits unless the rewards are serialized. Two modes avoid that:
+ * <ul>
+ * <li>{@link #setDeltaUpdates(boolean) Delta updates} add the credits made since the account was loaded to the stored
+ * savings, so concurrent rewards of an account all count without reading it under a lock.
+ * <li>A {@link #setVersioned(boolean) versioned} repository increments the VERSION column of T_ACCOUNT with every
+ * update. With absolute balances an update of an account changed since it was loaded fails with an
+ * {@link OptimisticLockingFailureException}, to be retried.
+ * </ul>
  */
 public class JdbcAccountRepository implements AccountRepository {
-	
+
+	/**
+	 * The parameter types of an update of the savings of a beneficiary: savings, account id and beneficiary name.
+	 */
+	private static final int[] SAVINGS_UPDATE_TYPES = { Types.DECIMAL, Types.BIGINT, Types.VARCHAR };
+
 	private JdbcTemplate jdbcTemplate;
 
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Maps the credit card numbers to the ids of their accounts, so accounts can be loaded by their primary key instead
+	 * of by searching T_ACCOUNT_CREDIT_CARD. Every lookup still verifies the credit card is on the account indexed, by
+	 * its (ACCOUNT_ID, NUMBER) key, so a credit card removed or moved to another account by any writer is never
+	 * credited to its old account: it is looked up again instead.
+	 */
+	private CreditCardIndex creditCardIndex = new CreditCardIndex();
+
 	/**
 	 * Extracts an Account object from rows returned from a join of T_ACCOUNT and T_ACCOUNT_BENEFICIARY.
 	 */
 	private ResultSetExtractor<Account> accountExtractor = new AccountExtractor();
 
+	private boolean deltaUpdates;
+
+	private boolean versioned;
+
+	/**
+	 * The statements of a reward, with their SQL and parameter types worked out once instead of with every call.
+	 * Recreated when the mode of the repository changes.
+	 */
+	private PreparedStatementCreatorFactory findByIndexedCreditCardStatement;
+
+	private PreparedStatementCreatorFactory findByCreditCardStatement;
+
+	private PreparedStatementCreatorFactory updateSavingsStatement;
+
+	public JdbcAccountRepository() {
+		prepareStatements();
+	}
+
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+	}
+
+	/**
+	 * Sets whether savings are written as the credits since the account was loaded, <code>SAVINGS = SAVINGS + ?</code>,
+	 * instead of as absolute balances. The savings of the Account object then no longer track those of concurrent
+	 * rewards, only the stored ones do.
+	 * @param deltaUpdates true for delta updates, defaults to false
+	 */
+	public void setDeltaUpdates(boolean deltaUpdates) {
+		this.deltaUpdates = deltaUpdates;
+		prepareStatements();
+	}
+
+	/**
+	 * Sets whether the VERSION column of T_ACCOUNT is read and incremented with every update, see the class comment.
+	 * A database without the column must not be versioned.
+	 * @param versioned true to keep versions, defaults to false
+	 */
+	public void setVersioned(boolean versioned) {
+		this.versioned = versioned;
+		prepareStatements();
+	}
+
+	/**
+	 * Returns the T_ACCOUNT columns to select as "a".
+	 */
+	private String accountColumns() {
+		return versioned ? "a.ID as ID, a.NUMBER as ACCOUNT_NUMBER, a.NAME as ACCOUNT_NAME, a.VERSION as ACCOUNT_VERSION"
+				: "a.ID as ID, a.NUMBER as ACCOUNT_NUMBER, a.NAME as ACCOUNT_NAME";
+	}
+
+	private void prepareStatements() {
+		findByIndexedCreditCardStatement = new PreparedStatementCreatorFactory("select " + accountColumns()
+				+ ", b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where a.ID = b.ACCOUNT_ID and a.ID = c.ACCOUNT_ID and a.ID = ? and c.NUMBER = ?",
+				Types.BIGINT, Types.VARCHAR);
+		findByCreditCardStatement = new PreparedStatementCreatorFactory("select " + accountColumns()
+				+ ", c.NUMBER as CREDIT_CARD_NUMBER, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where ID = b.ACCOUNT_ID and ID = c.ACCOUNT_ID and c.NUMBER = ?",
+				Types.VARCHAR);
+		updateSavingsStatement = new PreparedStatementCreatorFactory(updateSavingsSql(), SAVINGS_UPDATE_TYPES);
+	}
+
+	/**
+	 * Returns the update of the savings of one beneficiary, whose parameters are {@link #SAVINGS_UPDATE_TYPES}.
+	 */
+	private String updateSavingsSql() {
+		return "update T_ACCOUNT_BENEFICIARY SET SAVINGS = " + savingsBase() + "? where ACCOUNT_ID = ? and NAME = ?";
+	}
+
+	/**
+	 * Loads the credit card numbers of all accounts into the in-memory credit card index. Called once at startup;
+	 * without it credit cards are indexed as they are used.
+	 */
+	public void loadCreditCardIndex() {
+		creditCardIndex.clear();
+		jdbcTemplate.query("select NUMBER, ACCOUNT_ID from T_ACCOUNT_CREDIT_CARD", rs -> {
+			creditCardIndex.put(rs.getString("NUMBER"), rs.getLong("ACCOUNT_ID"));
+		});
+	}
+
+	/**
+	 * Drops a credit card from the in-memory credit card index. Never needed for correctness, as a credit card no
+	 * longer on the account indexed is dropped when next looked up, but saves that lookup a query.
+	 * @param creditCardNumber the credit card number
+	 */
+	public void invalidateCreditCard(String creditCardNumber) {
+		creditCardIndex.remove(creditCardNumber);
+	}
+
+	/**
+	 * Returns the id of the account of a credit card, from the in-memory credit card index when indexed. Meant for
+	 * partitioning work by account, e.g. so two credit cards of one account are never rewarded at the same time; the
+	 * id of a credit card just moved to another account may still be the old one.
+	 * @param creditCardNumber the credit card number
+	 * @return the account id, or -1 if no account has the credit card
+	 */
+	public long findAccountIdByCreditCard(String creditCardNumber) {
+		long accountId = creditCardIndex.get(creditCardNumber);
+		if (accountId != CreditCardIndex.NO_ACCOUNT) {
+			return accountId;
+		}
+		List<Long> accountIds = jdbcTemplate.queryForList(
+				"select ACCOUNT_ID from T_ACCOUNT_CREDIT_CARD where NUMBER = ?", Long.class, creditCardNumber);
+		if (accountIds.isEmpty()) {
+			return CreditCardIndex.NO_ACCOUNT;
+		}
+		creditCardIndex.put(creditCardNumber, accountIds.get(0));
+		return accountIds.get(0);
 	}
-	
+
 	public Account findByCreditCard(String creditCardNumber) {
-		String sql = "select a.ID as ID, a.NUMBER as ACCOUNT_NUMBER, a.NAME as ACCOUNT_NAME, c.NUMBER as CREDIT_CARD_NUMBER, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where ID = b.ACCOUNT_ID and ID = c.ACCOUNT_ID and c.NUMBER = ?";
-		return jdbcTemplate.query(sql, accountExtractor, creditCardNumber);
+		long accountId = creditCardIndex.get(creditCardNumber);
+		if (accountId != CreditCardIndex.NO_ACCOUNT) {
+			Account account = jdbcTemplate.query(
+					findByIndexedCreditCardStatement
+							.newPreparedStatementCreator(new Object[] { accountId, creditCardNumber }),
+					(ResultSetExtractor<Account>) this::mapAccountIfAny);
+			if (account != null) {
+				return account;
+			}
+			// the credit card has been removed or moved to another account, or its account deleted
+			creditCardIndex.remove(creditCardNumber);
+		}
+		Account account = jdbcTemplate.query(
+				findByCreditCardStatement.newPreparedStatementCreator(new Object[] { creditCardNumber }), accountExtractor);
+		creditCardIndex.put(creditCardNumber, account.getEntityId());
+		return account;
+	}
+
+	public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers) {
+		if (creditCardNumbers.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Map<String, Account> accountsByCreditCard = new HashMap<String, Account>();
+		AccountAssembler assembler = new AccountAssembler();
+
+		// credit cards of indexed accounts: load every account once by its id, with the credit cards still on it
+		Map<String, Long> accountIdsByCreditCard = new HashMap<String, Long>();
+		List<String> unindexedCreditCardNumbers = new ArrayList<String>();
+		for (String creditCardNumber : creditCardNumbers) {
+			long accountId = creditCardIndex.get(creditCardNumber);
+			if (accountId == CreditCardIndex.NO_ACCOUNT) {
+				unindexedCreditCardNumbers.add(creditCardNumber);
+			} else {
+				accountIdsByCreditCard.put(creditCardNumber, accountId);
+			}
+		}
+		if (!accountIdsByCreditCard.isEmpty()) {
+			String sql = "select " + accountColumns() + ", c.NUMBER as CREDIT_CARD_NUMBER, b.ID as BENEFICIARY_ID, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where a.ID = b.ACCOUNT_ID and a.ID = c.ACCOUNT_ID and a.ID in (:accountIds) and c.NUMBER in (:creditCardNumbers)";
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("accountIds", new HashSet<Long>(accountIdsByCreditCard.values()));
+			params.put("creditCardNumbers", accountIdsByCreditCard.keySet());
+			Map<String, Account> verified = new HashMap<String, Account>();
+			namedParameterJdbcTemplate.query(sql, params, rs -> {
+				Account account = assembler.mapRow(rs);
+				String creditCardNumber = rs.getString("CREDIT_CARD_NUMBER");
+				if (account.getEntityId().equals(accountIdsByCreditCard.get(creditCardNumber))) {
+					verified.put(creditCardNumber, account);
+				}
+			});
+			for (String creditCardNumber : accountIdsByCreditCard.keySet()) {
+				Account account = verified.get(creditCardNumber);
+				if (account != null) {
+					accountsByCreditCard.put(creditCardNumber, account);
+				} else {
+					// the credit card has been removed or moved to another account, or its account deleted
+					creditCardIndex.remove(creditCardNumber);
+					unindexedCreditCardNumbers.add(creditCardNumber);
+				}
+			}
+		}
+
+		// other credit cards: join T_ACCOUNT_CREDIT_CARD and index them for next time
+		if (!unindexedCreditCardNumbers.isEmpty()) {
+			String sql = "select " + accountColumns() + ", c.NUMBER as CREDIT_CARD_NUMBER, b.ID as BENEFICIARY_ID, b.NAME as BENEFICIARY_NAME, b.ALLOCATION_PERCENTAGE as BENEFICIARY_ALLOCATION_PERCENTAGE, b.SAVINGS as BENEFICIARY_SAVINGS from T_ACCOUNT a, T_ACCOUNT_BENEFICIARY b, T_ACCOUNT_CREDIT_CARD c where a.ID = b.ACCOUNT_ID and a.ID = c.ACCOUNT_ID and c.NUMBER in (:creditCardNumbers)";
+			namedParameterJdbcTemplate.query(sql,
+					Collections.singletonMap("creditCardNumbers", unindexedCreditCardNumbers), rs -> {
+						Account account = assembler.mapRow(rs);
+						String creditCardNumber = rs.getString("CREDIT_CARD_NUMBER");
+						accountsByCreditCard.put(creditCardNumber, account);
+						creditCardIndex.put(creditCardNumber, account.getEntityId());
+					});
+		}
+		return accountsByCreditCard;
 	}
 
 	public void updateBeneficiaries(Account account) {
-		String sql = "update T_ACCOUNT_BENEFICIARY SET SAVINGS = ? where ACCOUNT_ID = ? and NAME = ?";
+		List<Beneficiary> changed = changedBeneficiaries(account);
+		if (changed.isEmpty()) {
+			return;
+		}
+		if (versioned) {
+			updateVersions(Collections.singletonList(account));
+		}
+		if (changed.size() == 1) {
+			Beneficiary b = changed.get(0);
+			jdbcTemplate.update(updateSavingsStatement
+					.newPreparedStatementCreator(new Object[] { savingsValue(b), account.getEntityId(), b.getName() }));
+		} else {
+			// one statement for all beneficiaries of the account; the cast types the parameters of the case expression
+			StringBuilder cases = new StringBuilder();
+			StringBuilder names = new StringBuilder();
+			List<Object> args = new ArrayList<Object>(changed.size() * 3 + 1);
+			for (Beneficiary b : changed) {
+				cases.append(" when ? then cast(? as decimal(8,2))");
+				args.add(b.getName());
+				args.add(savingsValue(b));
+			}
+			args.add(account.getEntityId());
+			for (Beneficiary b : changed) {
+				names.append(names.length() == 0 ? "?" : ", ?");
+				args.add(b.getName());
+			}
+			String sql = "update T_ACCOUNT_BENEFICIARY SET SAVINGS = " + savingsBase() + "case NAME" + cases
+					+ " end where ACCOUNT_ID = ? and NAME in (" + names + ")";
+			jdbcTemplate.update(sql, args.toArray());
+		}
+		for (Beneficiary b : changed) {
+			b.savingsStored();
+		}
+	}
+
+	public void updateBeneficiaries(Collection<Account> accounts) {
+		List<Object[]> batchArgs = new ArrayList<Object[]>();
+		List<Beneficiary> updated = new ArrayList<Beneficiary>();
+		List<Account> updatedAccounts = new ArrayList<Account>();
+		for (Account account : accounts) {
+			List<Beneficiary> changed = changedBeneficiaries(account);
+			for (Beneficiary b : changed) {
+				batchArgs.add(new Object[] { savingsValue(b), account.getEntityId(), b.getName() });
+				updated.add(b);
+			}
+			if (!changed.isEmpty()) {
+				updatedAccounts.add(account);
+			}
+		}
+		if (versioned && !updatedAccounts.isEmpty()) {
+			updateVersions(updatedAccounts);
+		}
+		if (!batchArgs.isEmpty()) {
+			jdbcTemplate.batchUpdate(updateSavingsSql(), batchArgs, SAVINGS_UPDATE_TYPES);
+		}
+		for (Beneficiary b : updated) {
+			b.savingsStored();
+		}
+	}
+
+	/**
+	 * Returns what the savings parameter of an update is added to: nothing for absolute balances.
+	 */
+	private String savingsBase() {
+		return deltaUpdates ? "SAVINGS + " : "";
+	}
+
+	/**
+	 * Returns the savings parameter of an update of a beneficiary: its balance, or its credits for a delta update.
+	 */
+	private Object savingsValue(Beneficiary b) {
+		return (deltaUpdates ? b.getSavingsChange() : b.getSavings()).asBigDecimal();
+	}
+
+	/**
+	 * Increments the versions of the accounts. Absolute balances may only be written over the balances they were
+	 * computed from, so then the versions must also be the ones loaded; deltas apply to any balance.
+	 * @throws OptimisticLockingFailureException if an account was updated since it was loaded
+	 */
+	private void updateVersions(List<Account> accounts) {
+		if (deltaUpdates) {
+			// the new versions are unknown, and not needed to write deltas
+			List<Object[]> batchArgs = new ArrayList<Object[]>(accounts.size());
+			for (Account account : accounts) {
+				batchArgs.add(new Object[] { account.getEntityId() });
+			}
+			jdbcTemplate.batchUpdate("update T_ACCOUNT set VERSION = VERSION + 1 where ID = ?", batchArgs);
+			return;
+		}
+		List<Object[]> batchArgs = new ArrayList<Object[]>(accounts.size());
+		for (Account account : accounts) {
+			batchArgs.add(new Object[] { account.getEntityId(), account.getVersion() });
+		}
+		int[] counts = jdbcTemplate.batchUpdate("update T_ACCOUNT set VERSION = VERSION + 1 where ID = ? and VERSION = ?",
+				batchArgs);
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] == 0) {
+				throw new OptimisticLockingFailureException(
+						"Account " + accounts.get(i).getNumber() + " was updated since it was loaded");
+			}
+		}
+		for (Account account : accounts) {
+			account.setVersion(account.getVersion() + 1);
+		}
+	}
+
+	/**
+	 * Returns the beneficiaries of the account whose savings changed since they were loaded or last updated, e.g.
+	 * skipping those that got a zero distribution.
+	 */
+	private List<Beneficiary> changedBeneficiaries(Account account) {
+		List<Beneficiary> changed = new ArrayList<Beneficiary>(account.getBeneficiaries().size());
 		for (Beneficiary b : account.getBeneficiaries()) {
-			jdbcTemplate.update(sql, b.getSavings().asBigDecimal(), account.getEntityId(), b.getName());
+			if (b.isSavingsChanged()) {
+				changed.add(b);
+			}
 		}
+		return changed;
 	}
 
 	/**
@@ -50,6 +378,23 @@ public class JdbcAccountRepository implements AccountRepository {
 	 * @throws SQLException an exception occurred extracting data from the result set
 	 */
 	private Account mapAccount(ResultSet rs) throws SQLException {
+		Account account = mapAccountIfAny(rs);
+		if (account == null) {
+			// no rows returned - throw an empty result exception
+			throw new EmptyResultDataAccessException(1);
+		}
+		return account;
+	}
+
+	/**
+	 * Map the rows returned from the join of T_ACCOUNT and T_ACCOUNT_BENEFICIARY to an fully-reconstituted Account
+	 * aggregate, if there are any.
+	 * 
+	 * @param rs the set of rows returned from the query
+	 * @return the mapped Account aggregate, or null if no rows were returned
+	 * @throws SQLException an exception occurred extracting data from the result set
+	 */
+	private Account mapAccountIfAny(ResultSet rs) throws SQLException {
 		Account account = null;
 		while (rs.next()) {
 			if (account == null) {
@@ -58,13 +403,12 @@ public class JdbcAccountRepository implements AccountRepository {
 				account = new Account(number, name);
 				// set internal entity identifier (primary key)
 				account.setEntityId(rs.getLong("ID"));
+				if (versioned) {
+					account.setVersion(rs.getInt("ACCOUNT_VERSION"));
+				}
 			}
 			account.restoreBeneficiary(mapBeneficiary(rs));
 		}
-		if (account == null) {
-			// no rows returned - throw an empty result exception
-			throw new EmptyResultDataAccessException(1);
-		}
 		return account;
 	}
 
@@ -89,4 +433,39 @@ public class JdbcAccountRepository implements AccountRepository {
 		}
 
 	}
+
+	/**
+	 * Reconstitutes Account aggregates from the rows of one or more queries joining T_ACCOUNT and
+	 * T_ACCOUNT_BENEFICIARY, one row at a time. Every account is reconstituted once, however often its rows are
+	 * returned - e.g. once for each of its credit cards.
+	 */
+	private class AccountAssembler {
+
+		private Map<Long, Account> accountsById = new HashMap<Long, Account>();
+
+		private Set<Long> beneficiaryIds = new HashSet<Long>();
+
+		/**
+		 * Maps the current row, which must include the BENEFICIARY_ID column.
+		 * @param rs the result set with its cursor positioned at the current row
+		 * @return the account of the row
+		 * @throws SQLException an exception occurred extracting data from the result set
+		 */
+		Account mapRow(ResultSet rs) throws SQLException {
+			Long id = rs.getLong("ID");
+			Account account = accountsById.get(id);
+			if (account == null) {
+				account = new Account(rs.getString("ACCOUNT_NUMBER"), rs.getString("ACCOUNT_NAME"));
+				account.setEntityId(id);
+				if (versioned) {
+					account.setVersion(rs.getInt("ACCOUNT_VERSION"));
+				}
+				accountsById.put(id, account);
+			}
+			if (beneficiaryIds.add(rs.getLong("BENEFICIARY_ID"))) {
+				account.restoreBeneficiary(mapBeneficiary(rs));
+			}
+			return account;
+		}
+	}
 }
\ No newline at end of file
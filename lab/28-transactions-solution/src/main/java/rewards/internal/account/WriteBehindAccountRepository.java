@@ -0,0 +1,418 @@
+package rewards.internal.account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import common.money.MonetaryAmount;
+
+/**
+ * An account repository that writes the savings of beneficiaries behind: instead of updating a beneficiary's row with
+ * every reward, it adds the credits to an in-memory total per beneficiary and writes the totals, as
+ * <code>SAVINGS = SAVINGS + ?</code>, every flush interval or once a number of beneficiaries have credits pending. An
+ * account rewarded hundreds of times between flushes costs one row update per beneficiary.
+ * <p>
+ * Accounts are loaded by another repository; their savings include the credits pending. Credits made in a transaction
+ * are only taken once it commits, so a reward rolled back credits nothing.
+ * <p>
+ * So that credits pending in a crash are not lost, a transaction also journals its credits in T_SAVINGS_PENDING as it
+ * commits: one insert per beneficiary credited, which unlike an update never waits for another transaction crediting
+ * the same beneficiary. A flush deletes the journal entries of the credits it writes, and {@link #start()} replays
+ * the entries left by a crash. Only credits taken by this repository are journaled, so rewards credited by any other
+ * repository are never replayed. For a flush to know which entries it writes, it waits for the transactions that have
+ * credits to complete, and holds new ones back while it writes.
+ */
+public class WriteBehindAccountRepository implements AccountRepository {
+
+	/**
+	 * The default number of milliseconds between flushes.
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+	/**
+	 * The default number of beneficiaries with credits pending that triggers a flush before the interval is up.
+	 */
+	public static final int DEFAULT_MAX_PENDING = 10000;
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteBehindAccountRepository.class);
+
+	private AccountRepository accountRepository;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+	private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+	private int maxPending = DEFAULT_MAX_PENDING;
+
+	/**
+	 * The credits not written yet, by beneficiary.
+	 */
+	private Map<BeneficiaryKey, MonetaryAmount> pending = new HashMap<BeneficiaryKey, MonetaryAmount>();
+
+	/**
+	 * Guards {@link #pending}: shared while loading accounts, exclusive while adding credits or writing them. Loading
+	 * under the lock makes sure an account is never loaded with credits that are both pending and written.
+	 */
+	private ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Shared by a transaction from its first credits until it completes, exclusive while flushing or replaying: the
+	 * journal entries a flush deletes are then exactly those of the credits it writes.
+	 */
+	private ReadWriteLock rewarding = new ReentrantReadWriteLock();
+
+	private AtomicBoolean flushRequested = new AtomicBoolean();
+
+	private ScheduledExecutorService flusher;
+
+	private LongAdder credits = new LongAdder();
+
+	private LongAdder rowsWritten = new LongAdder();
+
+	/**
+	 * Creates a new write-behind account repository.
+	 * @param accountRepository the repository loading the accounts
+	 * @param dataSource the data source of T_ACCOUNT_BENEFICIARY
+	 */
+	public WriteBehindAccountRepository(AccountRepository accountRepository, DataSource dataSource) {
+		this.accountRepository = accountRepository;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	/**
+	 * Sets how often the credits pending are written.
+	 * @param flushInterval the interval in milliseconds, defaults to {@link #DEFAULT_FLUSH_INTERVAL}
+	 */
+	public void setFlushInterval(long flushInterval) {
+		if (flushInterval < 1) {
+			throw new IllegalArgumentException("Flush interval must be positive; your value was " + flushInterval);
+		}
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Sets the number of beneficiaries with credits pending that triggers a flush before the interval is up.
+	 * @param maxPending the number of beneficiaries, defaults to {@link #DEFAULT_MAX_PENDING}
+	 */
+	public void setMaxPending(int maxPending) {
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("Maximum pending must be positive; your value was " + maxPending);
+		}
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * Replays the credits journaled but not written before a crash, then starts flushing every flush interval.
+	 */
+	public synchronized void start() {
+		if (flusher != null) {
+			return;
+		}
+		replay();
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "savings-write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops flushing, after writing the credits pending.
+	 */
+	public synchronized void stop() {
+		if (flusher != null) {
+			flusher.shutdown();
+			try {
+				flusher.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			flusher = null;
+		}
+		flush();
+	}
+
+	public Account findByCreditCard(String creditCardNumber) {
+		lock.readLock().lock();
+		try {
+			Account account = accountRepository.findByCreditCard(creditCardNumber);
+			creditPending(account);
+			return account;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers) {
+		lock.readLock().lock();
+		try {
+			Map<String, Account> accounts = accountRepository.findByCreditCards(creditCardNumbers);
+			// Credit cards of the same account map to the same account object
+			Set<Account> distinct = Collections.newSetFromMap(new IdentityHashMap<Account, Boolean>());
+			distinct.addAll(accounts.values());
+			for (Account account : distinct) {
+				creditPending(account);
+			}
+			return accounts;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public void updateBeneficiaries(Account account) {
+		updateBeneficiaries(Collections.singletonList(account));
+	}
+
+	public void updateBeneficiaries(Collection<Account> accounts) {
+		Map<BeneficiaryKey, MonetaryAmount> changes = new HashMap<BeneficiaryKey, MonetaryAmount>();
+		for (Account account : accounts) {
+			for (Beneficiary b : account.getBeneficiaries()) {
+				if (b.isSavingsChanged()) {
+					changes.merge(new BeneficiaryKey(account.getEntityId(), b.getName()), b.getSavingsChange(),
+							MonetaryAmount::add);
+					b.savingsStored();
+				}
+			}
+		}
+		if (changes.isEmpty()) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			@SuppressWarnings("unchecked")
+			Map<BeneficiaryKey, MonetaryAmount> transactionChanges = (Map<BeneficiaryKey, MonetaryAmount>) TransactionSynchronizationManager
+				.getResource(this);
+			if (transactionChanges == null) {
+				transactionChanges = registerTransaction();
+			}
+			for (Map.Entry<BeneficiaryKey, MonetaryAmount> change : changes.entrySet()) {
+				transactionChanges.merge(change.getKey(), change.getValue(), MonetaryAmount::add);
+			}
+		} else {
+			rewarding.readLock().lock();
+			try {
+				writeJournal(changes);
+				addPending(changes);
+			} finally {
+				rewarding.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * Holds flushes back until the current transaction completes, journals the credits it collects as it commits and
+	 * takes them once it has.
+	 */
+	private Map<BeneficiaryKey, MonetaryAmount> registerTransaction() {
+		Map<BeneficiaryKey, MonetaryAmount> transactionChanges = new HashMap<BeneficiaryKey, MonetaryAmount>();
+		rewarding.readLock().lock();
+		TransactionSynchronizationManager.bindResource(this, transactionChanges);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			public void beforeCommit(boolean readOnly) {
+				writeJournal(transactionChanges);
+			}
+
+			public void afterCommit() {
+				addPending(transactionChanges);
+			}
+
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(WriteBehindAccountRepository.this);
+				rewarding.readLock().unlock();
+			}
+		});
+		return transactionChanges;
+	}
+
+	/**
+	 * Writes the credits pending now and deletes their journal entries. Must not be called in a transaction that has
+	 * credits, which the flush would wait for, nor before the credits of a crash are replayed.
+	 */
+	public void flush() {
+		rewarding.writeLock().lock();
+		lock.writeLock().lock();
+		try {
+			flushRequested.set(false);
+			if (pending.isEmpty()) {
+				return;
+			}
+			transactionTemplate.executeWithoutResult(status -> {
+				writeSavings(pending);
+				jdbcTemplate.update("delete from T_SAVINGS_PENDING");
+			});
+			// Kept pending, to be tried again, if writing failed
+			rowsWritten.add(pending.size());
+			pending.clear();
+		} finally {
+			lock.writeLock().unlock();
+			rewarding.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the credits journaled but not written when the application stopped without flushing. Called by
+	 * {@link #start()}; must be called before any credits are taken.
+	 * @return the number of beneficiaries credited
+	 */
+	public int replay() {
+		rewarding.writeLock().lock();
+		lock.writeLock().lock();
+		try {
+			if (!pending.isEmpty()) {
+				throw new IllegalStateException("Cannot replay credits with credits pending");
+			}
+			return transactionTemplate.execute(status -> {
+				Map<BeneficiaryKey, MonetaryAmount> credits = new HashMap<BeneficiaryKey, MonetaryAmount>();
+				jdbcTemplate.query(
+						"select ACCOUNT_ID, NAME, sum(AMOUNT) as AMOUNT from T_SAVINGS_PENDING group by ACCOUNT_ID, NAME",
+						rs -> {
+							credits.put(new BeneficiaryKey(rs.getLong("ACCOUNT_ID"), rs.getString("NAME")),
+									MonetaryAmount.valueOf(rs.getString("AMOUNT")));
+						});
+				if (credits.isEmpty()) {
+					return 0;
+				}
+				writeSavings(credits);
+				jdbcTemplate.update("delete from T_SAVINGS_PENDING");
+				logger.info("Replayed the journaled credits of {} beneficiaries", credits.size());
+				return credits.size();
+			});
+		} finally {
+			lock.writeLock().unlock();
+			rewarding.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of beneficiary credits taken since creation.
+	 */
+	public long getCredits() {
+		return credits.sum();
+	}
+
+	/**
+	 * Returns the number of beneficiary rows written since creation: one per beneficiary and flush.
+	 */
+	public long getRowsWritten() {
+		return rowsWritten.sum();
+	}
+
+	/**
+	 * Returns the number of beneficiaries with credits pending.
+	 */
+	public int getPending() {
+		lock.readLock().lock();
+		try {
+			return pending.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void writeSavings(Map<BeneficiaryKey, MonetaryAmount> credits) {
+		List<Object[]> batchArgs = new ArrayList<Object[]>(credits.size());
+		for (Map.Entry<BeneficiaryKey, MonetaryAmount> entry : credits.entrySet()) {
+			batchArgs.add(new Object[] { entry.getValue().asBigDecimal(), entry.getKey().accountId,
+					entry.getKey().name });
+		}
+		jdbcTemplate.batchUpdate("update T_ACCOUNT_BENEFICIARY SET SAVINGS = SAVINGS + ? where ACCOUNT_ID = ? and NAME = ?",
+				batchArgs);
+	}
+
+	private void writeJournal(Map<BeneficiaryKey, MonetaryAmount> credits) {
+		List<Object[]> batchArgs = new ArrayList<Object[]>(credits.size());
+		for (Map.Entry<BeneficiaryKey, MonetaryAmount> entry : credits.entrySet()) {
+			batchArgs.add(new Object[] { entry.getKey().accountId, entry.getKey().name,
+					entry.getValue().asBigDecimal() });
+		}
+		jdbcTemplate.batchUpdate("insert into T_SAVINGS_PENDING (ACCOUNT_ID, NAME, AMOUNT) values (?, ?, ?)",
+				batchArgs);
+	}
+
+	private void creditPending(Account account) {
+		for (Beneficiary b : account.getBeneficiaries()) {
+			MonetaryAmount amount = pending.get(new BeneficiaryKey(account.getEntityId(), b.getName()));
+			if (amount != null) {
+				b.creditStored(amount);
+			}
+		}
+	}
+
+	private void addPending(Map<BeneficiaryKey, MonetaryAmount> changes) {
+		int size;
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<BeneficiaryKey, MonetaryAmount> change : changes.entrySet()) {
+				pending.merge(change.getKey(), change.getValue(), MonetaryAmount::add);
+			}
+			size = pending.size();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		credits.add(changes.size());
+		if (size >= maxPending && flusher != null && flushRequested.compareAndSet(false, true)) {
+			flusher.execute(this::flushQuietly);
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			logger.error("Writing savings behind failed; will try again", e);
+		}
+	}
+
+	/**
+	 * Identifies a beneficiary row: T_ACCOUNT_BENEFICIARY is unique by account and name.
+	 */
+	private static class BeneficiaryKey {
+
+		final Long accountId;
+
+		final String name;
+
+		BeneficiaryKey(Long accountId, String name) {
+			this.accountId = accountId;
+			this.name = name;
+		}
+
+		public boolean equals(Object other) {
+			if (!(other instanceof BeneficiaryKey)) {
+				return false;
+			}
+			BeneficiaryKey key = (BeneficiaryKey) other;
+			return accountId.equals(key.accountId) && name.equals(key.name);
+		}
+
+		public int hashCode() {
+			return Objects.hash(accountId, name);
+		}
+	}
+}
@@ -2,11 +2,19 @@ package rewards.internal.restaurant;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
+import org.springframework.dao.support.DataAccessUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 import rewards.Dining;
 import rewards.internal.account.Account;
@@ -20,18 +28,41 @@ public class JdbcRestaurantRepository implements RestaurantRepository {
 
 	private JdbcTemplate jdbcTemplate;
 
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
 	/**
 	 * Maps a row returned from a query of T_RESTAURANT to a Restaurant object.
 	 */
 	private RowMapper<Restaurant> rowMapper = new RestaurantRowMapper();
 
+	/**
+	 * The lookup of a restaurant with every reward, with its SQL and parameter types worked out once.
+	 */
+	private PreparedStatementCreatorFactory findByMerchantNumberStatement = new PreparedStatementCreatorFactory(
+			"select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT where MERCHANT_NUMBER = ?",
+			Types.VARCHAR);
+
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 	}
 	
 	public Restaurant findByMerchantNumber(String merchantNumber) {
-		String sql = "select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT where MERCHANT_NUMBER = ?";
-		return jdbcTemplate.queryForObject(sql, rowMapper, merchantNumber);
+		return DataAccessUtils.requiredSingleResult(jdbcTemplate.query(
+				findByMerchantNumberStatement.newPreparedStatementCreator(new Object[] { merchantNumber }), rowMapper));
+	}
+
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers) {
+		if (merchantNumbers.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		String sql = "select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT where MERCHANT_NUMBER in (:merchantNumbers)";
+		Map<String, Restaurant> restaurants = new HashMap<String, Restaurant>();
+		for (Restaurant restaurant : namedParameterJdbcTemplate.query(sql,
+				Collections.singletonMap("merchantNumbers", merchantNumbers), rowMapper)) {
+			restaurants.put(restaurant.getNumber(), restaurant);
+		}
+		return restaurants;
 	}
 
 	/**
@@ -1,5 +1,8 @@
 package rewards.internal.restaurant;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Loads restaurant aggregates. Called by the reward network to find and reconstitute Restaurant entities from an
  * external form such as a set of RDMS rows.
@@ -14,4 +17,11 @@ public interface RestaurantRepository {
 	 * @return the restaurant
 	 */
 	public Restaurant findByMerchantNumber(String merchantNumber);
+
+	/**
+	 * Load the Restaurant entities of a batch of merchant numbers in a single round-trip.
+	 * @param merchantNumbers the merchant numbers
+	 * @return the restaurants keyed by merchant number; unknown merchant numbers have no entry
+	 */
+	public Map<String, Restaurant> findByMerchantNumbers(Collection<String> merchantNumbers);
 }
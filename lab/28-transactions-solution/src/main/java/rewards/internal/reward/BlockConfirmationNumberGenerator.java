@@ -0,0 +1,166 @@
+package rewards.internal.reward;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Generates confirmation numbers from blocks of values reserved with a single query of the
+ * S_REWARD_CONFIRMATION_NUMBER sequence: the query advances the sequence by the block size and reserves the values it
+ * returns. Every number is a value of the sequence itself, so the block size can change between runs without two
+ * blocks ever overlapping.
+ * <p>
+ * Numbers of the current block are handed out lock-free from memory. When a block is running low the next one is
+ * reserved by a background thread, so the reward transactions normally never wait for the database. Numbers of a
+ * block that is not used up before shutdown are lost; confirmation numbers are unique but not gap-free.
+ * <p>
+ * For the same reason this generator and a {@link SequenceConfirmationNumberGenerator} on the same sequence never hand
+ * out the same number, so an existing database can switch between them either way.
+ */
+public class BlockConfirmationNumberGenerator implements ConfirmationNumberGenerator {
+
+	/**
+	 * The default number of confirmation numbers reserved per query.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 100;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private int blockSize;
+
+	private int refillThreshold;
+
+	private AtomicReference<Block> current = new AtomicReference<Block>(Block.EXHAUSTED);
+
+	private AtomicReference<Block> reserve = new AtomicReference<Block>();
+
+	private AtomicBoolean refilling = new AtomicBoolean();
+
+	private ExecutorService refillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "confirmation-number-refill");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Creates a new block confirmation number generator reserving {@link #DEFAULT_BLOCK_SIZE} numbers at a time.
+	 * @param dataSource the data source of the S_REWARD_CONFIRMATION_NUMBER sequence
+	 */
+	public BlockConfirmationNumberGenerator(DataSource dataSource) {
+		this(dataSource, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Creates a new block confirmation number generator.
+	 * @param dataSource the data source of the S_REWARD_CONFIRMATION_NUMBER sequence
+	 * @param blockSize the number of confirmation numbers reserved per query
+	 */
+	public BlockConfirmationNumberGenerator(DataSource dataSource, int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be positive; your value was " + blockSize);
+		}
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.blockSize = blockSize;
+		// start reserving the next block when a quarter of the current one is left
+		this.refillThreshold = blockSize - Math.max(1, blockSize / 4);
+	}
+
+	public String nextConfirmationNumber() {
+		while (true) {
+			Block block = current.get();
+			int lo = block.nextIndex();
+			if (lo < block.size) {
+				if (lo == refillThreshold) {
+					refillInBackground();
+				}
+				return String.valueOf(block.numbers[lo]);
+			}
+			advance(block);
+		}
+	}
+
+	/**
+	 * Stops the background thread reserving blocks. Called by Spring when the application context is closed.
+	 */
+	public void close() {
+		refillExecutor.shutdownNow();
+	}
+
+	/**
+	 * Replaces an exhausted block by the reserved one, or reserves a new block right away if the background thread
+	 * has not done so yet. Only ever entered once per block.
+	 */
+	private synchronized void advance(Block exhausted) {
+		if (current.get() != exhausted) {
+			// another thread advanced already
+			return;
+		}
+		Block next = reserve.getAndSet(null);
+		if (next == null) {
+			next = reserveBlock();
+		}
+		current.set(next);
+	}
+
+	private void refillInBackground() {
+		if (refilling.compareAndSet(false, true)) {
+			refillExecutor.execute(() -> {
+				try {
+					if (reserve.get() == null) {
+						reserve.set(reserveBlock());
+					}
+				} finally {
+					refilling.set(false);
+				}
+			});
+		}
+	}
+
+	private Block reserveBlock() {
+		// one sequence value per row of a generated table of blockSize rows
+		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from unnest(sequence_array(1, ?, 1))";
+		List<Long> values = jdbcTemplate.queryForList(sql, Long.class, blockSize);
+		long[] numbers = new long[values.size()];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = values.get(i);
+		}
+		// values of concurrent queries may interleave, but are handed out in order within the block
+		Arrays.sort(numbers);
+		return new Block(numbers);
+	}
+
+	/**
+	 * A reserved range of confirmation numbers.
+	 */
+	private static class Block {
+
+		static final Block EXHAUSTED = new Block(new long[0]);
+
+		final long[] numbers;
+
+		final int size;
+
+		private final AtomicInteger next = new AtomicInteger();
+
+		Block(long[] numbers) {
+			this.numbers = numbers;
+			this.size = numbers.length;
+		}
+
+		/**
+		 * Claims the next index of this block; the block is exhausted if the index is not less than its size.
+		 */
+		int nextIndex() {
+			// never increment past the size, so a block cannot overflow however often it is asked
+			return next.getAndUpdate(index -> index < size ? index + 1 : index);
+		}
+	}
+}
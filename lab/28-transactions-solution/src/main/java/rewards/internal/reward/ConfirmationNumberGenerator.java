@@ -0,0 +1,15 @@
+package rewards.internal.reward;
+
+/**
+ * Generates the unique confirmation numbers of reward transactions.
+ * 
+ * A strategy. Implementations must be safe for use by concurrent reward transactions.
+ */
+public interface ConfirmationNumberGenerator {
+
+	/**
+	 * Returns a confirmation number that has never been returned before.
+	 * @return the next confirmation number
+	 */
+	public String nextConfirmationNumber();
+}
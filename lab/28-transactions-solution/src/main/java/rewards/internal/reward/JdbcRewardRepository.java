@@ -1,8 +1,14 @@
 package rewards.internal.reward;
 
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
 
 import rewards.AccountContribution;
 import rewards.Dining;
@@ -16,23 +22,65 @@ import common.datetime.SimpleDate;
  */
 public class JdbcRewardRepository implements RewardRepository {
 
+	private static final String INSERT_REWARD_SQL = "insert into T_REWARD (CONFIRMATION_NUMBER, REWARD_AMOUNT, REWARD_DATE, ACCOUNT_NUMBER, DINING_MERCHANT_NUMBER, DINING_DATE, DINING_AMOUNT) values (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final int[] INSERT_REWARD_TYPES = { Types.VARCHAR, Types.DECIMAL, Types.DATE, Types.VARCHAR,
+			Types.VARCHAR, Types.DATE, Types.DECIMAL };
+
+	/**
+	 * The insert of a reward, with its SQL and parameter types worked out once instead of with every reward.
+	 */
+	private PreparedStatementCreatorFactory insertRewardStatement = new PreparedStatementCreatorFactory(
+			INSERT_REWARD_SQL, INSERT_REWARD_TYPES);
+
 	private JdbcTemplate jdbcTemplate;
+
+	private ConfirmationNumberGenerator confirmationNumberGenerator;
 	
 	public void setDataSource(DataSource dataSource) {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		if (confirmationNumberGenerator == null) {
+			confirmationNumberGenerator = new SequenceConfirmationNumberGenerator(dataSource);
+		}
+	}
+
+	/**
+	 * Sets the strategy generating the confirmation numbers of the rewards. Defaults to a
+	 * {@link SequenceConfirmationNumberGenerator} on the data source.
+	 * @param confirmationNumberGenerator the confirmation number generator
+	 */
+	public void setConfirmationNumberGenerator(ConfirmationNumberGenerator confirmationNumberGenerator) {
+		this.confirmationNumberGenerator = confirmationNumberGenerator;
 	}
 
 	public RewardConfirmation confirmReward(AccountContribution contribution, Dining dining) {
-		String sql = "insert into T_REWARD (CONFIRMATION_NUMBER, REWARD_AMOUNT, REWARD_DATE, ACCOUNT_NUMBER, DINING_MERCHANT_NUMBER, DINING_DATE, DINING_AMOUNT) values (?, ?, ?, ?, ?, ?, ?)";
 		String confirmationNumber = nextConfirmationNumber();
-		jdbcTemplate.update(sql, confirmationNumber, contribution.getAmount().asBigDecimal(),
-				SimpleDate.today().asDate(), contribution.getAccountNumber(), dining.getMerchantNumber(),
-				dining.getDate().asDate(), dining.getAmount().asBigDecimal());
+		jdbcTemplate.update(insertRewardStatement.newPreparedStatementCreator(new Object[] { confirmationNumber,
+				contribution.getAmount().asBigDecimal(), SimpleDate.today().asSqlDate(), contribution.getAccountNumber(),
+				dining.getMerchantNumber(), dining.getDate().asSqlDate(), dining.getAmount().asBigDecimal() }));
 		return new RewardConfirmation(confirmationNumber, contribution);
 	}
 
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings) {
+		Date rewardDate = SimpleDate.today().asSqlDate();
+		List<RewardConfirmation> confirmations = new ArrayList<RewardConfirmation>(contributions.size());
+		List<Object[]> batchArgs = new ArrayList<Object[]>(contributions.size());
+		for (int i = 0; i < contributions.size(); i++) {
+			AccountContribution contribution = contributions.get(i);
+			Dining dining = dinings.get(i);
+			String confirmationNumber = nextConfirmationNumber();
+			batchArgs.add(new Object[] { confirmationNumber, contribution.getAmount().asBigDecimal(), rewardDate,
+					contribution.getAccountNumber(), dining.getMerchantNumber(), dining.getDate().asSqlDate(),
+					dining.getAmount().asBigDecimal() });
+			confirmations.add(new RewardConfirmation(confirmationNumber, contribution));
+		}
+		if (!batchArgs.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_REWARD_SQL, batchArgs, INSERT_REWARD_TYPES);
+		}
+		return confirmations;
+	}
+
 	private String nextConfirmationNumber() {
-		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
-		return jdbcTemplate.queryForObject(sql, String.class);
+		return confirmationNumberGenerator.nextConfirmationNumber();
 	}
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package rewards.internal.reward;
 
+import java.util.List;
+
 import rewards.AccountContribution;
 import rewards.Dining;
 import rewards.RewardConfirmation;
@@ -17,4 +19,13 @@ public interface RewardRepository {
 	 * date
 	 */
 	public RewardConfirmation confirmReward(AccountContribution contribution, Dining dining);
+
+	/**
+	 * Create the records of a batch of rewards in a single round-trip.
+	 * @param contributions the account contributions that were made
+	 * @param dinings the dining events that resulted in the account contributions, in the same order as the
+	 * contributions
+	 * @return the reward confirmations, in the same order as the contributions
+	 */
+	public List<RewardConfirmation> confirmRewards(List<AccountContribution> contributions, List<Dining> dinings);
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package rewards.internal.reward;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Generates confirmation numbers by querying the next value of the S_REWARD_CONFIRMATION_NUMBER sequence for every
+ * reward. Simple, but costs one extra round-trip per reward.
+ */
+public class SequenceConfirmationNumberGenerator implements ConfirmationNumberGenerator {
+
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Creates a new sequence confirmation number generator.
+	 * @param dataSource the data source of the S_REWARD_CONFIRMATION_NUMBER sequence
+	 */
+	public SequenceConfirmationNumberGenerator(DataSource dataSource) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	public String nextConfirmationNumber() {
+		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
+		return jdbcTemplate.queryForObject(sql, String.class);
+	}
+}
@@ -14,6 +14,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import javax.sql.DataSource;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -86,4 +88,27 @@ public class RewardNetworkTests {
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Annabelle").getAmount());
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Corgan").getAmount());
 	}
+
+	@Test
+	public void testRewardForDiningBatch() {
+		Dining first = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		Dining unknownCard = Dining.createDining("100.00", "bogus", "1234567890");
+		Dining second = Dining.createDining("100.00", "1234123412341234", "1234567890");
+
+		BatchRewardConfirmation result = rewardNetwork.rewardAccountsFor(Arrays.asList(first, unknownCard, second));
+
+		assertEquals(2, result.getConfirmations().size());
+		assertEquals(1, result.getFailures().size());
+		assertEquals(1, result.getFailures().get(0).getIndex());
+
+		// both rewards were recorded and the savings of each beneficiary were updated once per reward
+		String sql = "SELECT COUNT(*) FROM T_REWARD WHERE CONFIRMATION_NUMBER in (?, ?)";
+		int count = jdbcTemplate.queryForObject(sql, Integer.class,
+				result.getConfirmation(0).getConfirmationNumber(), result.getConfirmation(2).getConfirmationNumber());
+		assertEquals(2, count);
+
+		sql = "SELECT SAVINGS FROM T_ACCOUNT_BENEFICIARY WHERE ACCOUNT_ID = 0 AND NAME = 'Annabelle'";
+		assertEquals(result.getConfirmation(2).getAccountContribution().getDistribution("Annabelle").getTotalSavings(),
+				MonetaryAmount.valueOf(jdbcTemplate.queryForObject(sql, String.class)));
+	}
 }
\ No newline at end of file
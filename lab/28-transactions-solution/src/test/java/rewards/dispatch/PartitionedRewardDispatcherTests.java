@@ -0,0 +1,219 @@
+package rewards.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import rewards.BatchRewardConfirmation;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.account.JdbcAccountRepository;
+import rewards.internal.restaurant.JdbcRestaurantRepository;
+import rewards.internal.reward.JdbcRewardRepository;
+
+/**
+ * Tests the partitioned reward dispatcher, against the JDBC repositories of a test data source and against stub reward
+ * networks.
+ */
+public class PartitionedRewardDispatcherTests {
+
+	private PartitionedRewardDispatcher dispatcher;
+
+	@AfterEach
+	public void tearDown() {
+		if (dispatcher != null) {
+			dispatcher.stop();
+		}
+	}
+
+	@Test
+	public void testDispatch() throws Exception {
+		DataSource dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		JdbcAccountRepository accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		JdbcRestaurantRepository restaurantRepository = new JdbcRestaurantRepository();
+		restaurantRepository.setDataSource(dataSource);
+		JdbcRewardRepository rewardRepository = new JdbcRewardRepository();
+		rewardRepository.setDataSource(dataSource);
+		dispatcher = new PartitionedRewardDispatcher(
+				new RewardNetworkImpl(accountRepository, restaurantRepository, rewardRepository));
+		dispatcher.setLanes(3);
+		dispatcher.start();
+
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		for (int i = 0; i < 40; i++) {
+			confirmations.add(dispatcher.dispatch(
+					Dining.createDining("100.00", i % 2 == 0 ? "1234123412341234" : "1234123412340003", "1234567890")));
+		}
+		CompletableFuture<RewardConfirmation> unknown = dispatcher
+				.dispatch(Dining.createDining("100.00", "9999999999999999", "1234567890"));
+		for (CompletableFuture<RewardConfirmation> confirmation : confirmations) {
+			confirmation.get();
+		}
+		ExecutionException failure = assertThrows(ExecutionException.class, unknown::get);
+		assertTrue(failure.getCause() instanceof EmptyResultDataAccessException);
+
+		assertEquals(41, dispatcher.getDispatched());
+		assertEquals(40, dispatcher.getRewarded());
+		assertEquals(1, dispatcher.getFailed());
+		// 20 dinings of $100.00 on account 0, 8% benefit split among two beneficiaries: no contribution is lost
+		assertEquals(new BigDecimal("80.00"), new JdbcTemplate(dataSource).queryForObject(
+				"select SAVINGS from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and NAME = 'Annabelle'",
+				BigDecimal.class));
+	}
+
+	@Test
+	public void testOrderPerCreditCard() throws Exception {
+		Map<String, List<String>> rewarded = new ConcurrentHashMap<String, List<String>>();
+		Map<String, Thread> threads = new ConcurrentHashMap<String, Thread>();
+		dispatcher = new PartitionedRewardDispatcher(new StubRewardNetwork() {
+			public RewardConfirmation rewardAccountFor(Dining dining) {
+				threads.merge(dining.getCreditCardNumber(), Thread.currentThread(), (first, current) -> {
+					assertEquals(first, current, "Credit card rewarded on two lanes");
+					return first;
+				});
+				rewarded.computeIfAbsent(dining.getCreditCardNumber(), creditCard -> new ArrayList<String>())
+						.add(dining.getAmount().toString());
+				return null;
+			}
+		});
+		dispatcher.start();
+
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		for (int i = 1; i <= 100; i++) {
+			confirmations.add(dispatcher.dispatch(Dining.createDining(i + ".00", "123412341234000" + i % 5, "1234567890")));
+		}
+		for (CompletableFuture<RewardConfirmation> confirmation : confirmations) {
+			confirmation.get();
+		}
+
+		assertEquals(5, rewarded.size());
+		for (List<String> amounts : rewarded.values()) {
+			assertEquals(20, amounts.size());
+			for (int i = 1; i < amounts.size(); i++) {
+				assertTrue(new BigDecimal(amounts.get(i - 1).substring(1))
+						.compareTo(new BigDecimal(amounts.get(i).substring(1))) < 0, "Out of order: " + amounts);
+			}
+		}
+	}
+
+	@Test
+	public void testLaneDepth() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		dispatcher = new PartitionedRewardDispatcher(new StubRewardNetwork() {
+			public RewardConfirmation rewardAccountFor(Dining dining) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		});
+		dispatcher.setLanes(2);
+		dispatcher.start();
+
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		int lane = dispatcher.laneOf(dining, 2);
+		List<CompletableFuture<RewardConfirmation>> confirmations = new ArrayList<CompletableFuture<RewardConfirmation>>();
+		for (int i = 0; i < 3; i++) {
+			confirmations.add(dispatcher.dispatch(dining));
+		}
+		assertEquals(3, dispatcher.getLaneDepth(lane));
+		assertEquals(0, dispatcher.getLaneDepth(1 - lane));
+
+		release.countDown();
+		for (CompletableFuture<RewardConfirmation> confirmation : confirmations) {
+			confirmation.get();
+		}
+		assertEquals(0, dispatcher.getLaneDepth(lane));
+		assertEquals(3, dispatcher.getPeakLaneDepth(lane));
+		assertEquals(0, dispatcher.getPeakLaneDepth(1 - lane));
+	}
+
+	@Test
+	public void testStopWhileDispatching() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		dispatcher = new PartitionedRewardDispatcher(new StubRewardNetwork() {
+			public RewardConfirmation rewardAccountFor(Dining dining) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}
+		});
+		dispatcher.setLanes(1);
+		dispatcher.setLaneCapacity(1);
+		dispatcher.start();
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		CompletableFuture<RewardConfirmation> rewarding = dispatcher.dispatch(dining);
+		CompletableFuture<RewardConfirmation> queued = dispatcher.dispatch(dining);
+
+		// the lane is full: a third dining waits for it, then stop waits for the dining to be queued
+		CompletableFuture<CompletableFuture<RewardConfirmation>> late = CompletableFuture.supplyAsync(() -> {
+			try {
+				return dispatcher.dispatch(dining);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		while (dispatcher.getLaneDepth(0) < 3) {
+			Thread.yield();
+		}
+		CompletableFuture<Void> stopped = CompletableFuture.runAsync(dispatcher::stop);
+		release.countDown();
+
+		stopped.get(10, TimeUnit.SECONDS);
+		rewarding.get(10, TimeUnit.SECONDS);
+		queued.get(10, TimeUnit.SECONDS);
+		late.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+		assertEquals(3, dispatcher.getRewarded());
+		assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(dining));
+	}
+
+	@Test
+	public void testNotStarted() {
+		PartitionedRewardDispatcher notStarted = new PartitionedRewardDispatcher(new StubRewardNetwork());
+		assertThrows(IllegalStateException.class,
+				() -> notStarted.dispatch(Dining.createDining("100.00", "1234123412341234", "1234567890")));
+		assertThrows(IllegalArgumentException.class, () -> notStarted.setLanes(0));
+		assertThrows(IllegalArgumentException.class, () -> notStarted.setLaneCapacity(0));
+	}
+
+	private static class StubRewardNetwork implements RewardNetwork {
+
+		public RewardConfirmation rewardAccountFor(Dining dining) {
+			return null;
+		}
+
+		public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
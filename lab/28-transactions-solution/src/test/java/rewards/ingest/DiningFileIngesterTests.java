@@ -0,0 +1,216 @@
+package rewards.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+import rewards.BatchRewardConfirmation;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.account.JdbcAccountRepository;
+import rewards.internal.restaurant.JdbcRestaurantRepository;
+import rewards.internal.reward.JdbcRewardRepository;
+
+/**
+ * Tests the dining file ingester against the JDBC repositories of a test data source.
+ */
+public class DiningFileIngesterTests {
+
+	@TempDir
+	Path directory;
+
+	private RewardNetwork rewardNetwork;
+
+	private JdbcAccountRepository accountRepository;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Path checkpointFile;
+
+	@BeforeEach
+	public void setUp() {
+		DataSource dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		JdbcRestaurantRepository restaurantRepository = new JdbcRestaurantRepository();
+		restaurantRepository.setDataSource(dataSource);
+		JdbcRewardRepository rewardRepository = new JdbcRewardRepository();
+		rewardRepository.setDataSource(dataSource);
+		rewardNetwork = new RewardNetworkImpl(accountRepository, restaurantRepository, rewardRepository);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		checkpointFile = directory.resolve("dinings.checkpoint");
+	}
+
+	@Test
+	public void testIngest() throws IOException {
+		Path file = writeDinings(40, true);
+		DiningFileIngester ingester = new DiningFileIngester(rewardNetwork);
+		ingester.setWorkers(3);
+		ingester.setChunkSize(4);
+		ingester.setQueueCapacity(1);
+		IngestionStatistics statistics = ingester.ingest(file, checkpointFile);
+
+		assertEquals(41, statistics.getDiningsRead());
+		assertEquals(40, statistics.getDiningsRewarded());
+		assertEquals(1, statistics.getDiningsNotRewarded());
+		assertEquals(0, statistics.getLag());
+		assertEquals(Files.size(file), statistics.getCheckpoint());
+		assertEquals(Long.toString(Files.size(file)), new String(Files.readAllBytes(checkpointFile),
+				StandardCharsets.US_ASCII));
+		assertEquals(40, countRewards());
+		// 20 dinings of $100.00 on account 0, 8% benefit split among two beneficiaries: no contribution is lost
+		assertEquals(new BigDecimal("80.00"), savingsOf("Annabelle"));
+	}
+
+	@Test
+	public void testIngestAgainRewardsNothing() throws IOException {
+		Path file = writeDinings(10, false);
+		DiningFileIngester ingester = new DiningFileIngester(rewardNetwork);
+		ingester.ingest(file, checkpointFile);
+		IngestionStatistics statistics = ingester.ingest(file, checkpointFile);
+		assertEquals(0, statistics.getDiningsRead());
+		assertEquals(10, countRewards());
+	}
+
+	@Test
+	public void testRestartAfterFailure() throws IOException {
+		Path file = writeDinings(10, false);
+		AtomicInteger chunks = new AtomicInteger();
+		DiningFileIngester failingIngester = new DiningFileIngester(new RewardNetwork() {
+			public RewardConfirmation rewardAccountFor(Dining dining) {
+				return rewardNetwork.rewardAccountFor(dining);
+			}
+
+			public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings) {
+				if (chunks.incrementAndGet() == 3) {
+					throw new DataAccessResourceFailureException("Database went away");
+				}
+				return rewardNetwork.rewardAccountsFor(dinings);
+			}
+		});
+		failingIngester.setWorkers(1);
+		failingIngester.setChunkSize(2);
+		assertThrows(DataAccessResourceFailureException.class, () -> failingIngester.ingest(file, checkpointFile));
+		assertEquals(4, countRewards());
+		assertTrue(failingIngester.getStatistics().isFinished());
+
+		DiningFileIngester ingester = new DiningFileIngester(rewardNetwork);
+		IngestionStatistics statistics = ingester.ingest(file, checkpointFile);
+		assertEquals(6, statistics.getDiningsRewarded());
+		assertEquals(10, countRewards());
+		assertEquals(new BigDecimal("20.00"), savingsOf("Annabelle"));
+	}
+
+	@Test
+	public void testIngestAccountWithTwoCreditCards() throws IOException {
+		jdbcTemplate.update("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (0, '1234123412349999')");
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			content.append("100.00,").append(i % 2 == 0 ? "1234123412341234" : "1234123412349999")
+					.append(",1234567890,2022-12-29\n");
+		}
+		Path file = Files.write(directory.resolve("dinings.csv"), content.toString().getBytes(StandardCharsets.US_ASCII));
+		DiningFileIngester ingester = new DiningFileIngester(rewardNetwork);
+		ingester.setWorkers(4);
+		ingester.setChunkSize(5);
+		ingester.setPartitionKey(
+				dining -> accountRepository.findAccountIdByCreditCard(dining.getCreditCardNumber()));
+		IngestionStatistics statistics = ingester.ingest(file, checkpointFile);
+
+		assertEquals(200, statistics.getDiningsRewarded());
+		// both credit cards go to one worker, so no contribution is lost to a concurrent absolute update
+		assertEquals(new BigDecimal("800.00"), savingsOf("Annabelle"));
+		assertEquals(new BigDecimal("800.00"), savingsOf("Corgan"));
+	}
+
+	@Test
+	public void testCheckpointSparseKeyBeforeEnd() throws IOException {
+		StringBuilder content = new StringBuilder();
+		content.append("100.00,1234123412340003,1234567890,2022-12-29\n");
+		for (int i = 0; i < 100; i++) {
+			content.append("100.00,1234123412341234,1234567890,2022-12-29\n");
+		}
+		Path file = Files.write(directory.resolve("dinings.csv"), content.toString().getBytes(StandardCharsets.US_ASCII));
+		AtomicBoolean held = new AtomicBoolean();
+		AtomicBoolean checkpointedBeforeEnd = new AtomicBoolean();
+		DiningFileIngester ingester = new DiningFileIngester(new RewardNetwork() {
+			public RewardConfirmation rewardAccountFor(Dining dining) {
+				return rewardNetwork.rewardAccountFor(dining);
+			}
+
+			public BatchRewardConfirmation rewardAccountsFor(List<Dining> dinings) {
+				if (dinings.get(0).getCreditCardNumber().equals("1234123412341234") && held.compareAndSet(false, true)) {
+					// holds the busy lane, and with it reading the file, until the sparse lane's dining is checkpointed
+					long deadline = System.currentTimeMillis() + 10000;
+					while (!Files.exists(checkpointFile) && System.currentTimeMillis() < deadline) {
+						LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+					}
+					checkpointedBeforeEnd.set(Files.exists(checkpointFile));
+				}
+				return rewardNetwork.rewardAccountsFor(dinings);
+			}
+		});
+		ingester.setWorkers(2);
+		ingester.setChunkSize(5);
+		ingester.setQueueCapacity(1);
+		// all but the first dining go to one lane
+		ingester.setPartitionKey(dining -> dining.getCreditCardNumber().equals("1234123412340003") ? 1 : 0);
+		IngestionStatistics statistics = ingester.ingest(file, checkpointFile);
+
+		assertTrue(checkpointedBeforeEnd.get(), "checkpoint held at the sparse lane's dining until the end");
+		assertEquals(101, statistics.getDiningsRewarded());
+		assertEquals(Files.size(file), statistics.getCheckpoint());
+	}
+
+	/**
+	 * Writes a file of $100.00 dinings alternating between the credit cards of account 0 and account 3, optionally
+	 * followed by one on an unknown credit card.
+	 */
+	private Path writeDinings(int count, boolean withUnknownCreditCard) throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			content.append("100.00,").append(i % 2 == 0 ? "1234123412341234" : "1234123412340003")
+					.append(",1234567890,2022-12-29\n");
+		}
+		if (withUnknownCreditCard) {
+			content.append("100.00,9999999999999999,1234567890,2022-12-29\n");
+		}
+		return Files.write(directory.resolve("dinings.csv"), content.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private int countRewards() {
+		return jdbcTemplate.queryForObject("select count(*) from T_REWARD", Integer.class);
+	}
+
+	private BigDecimal savingsOf(String beneficiary) {
+		return jdbcTemplate.queryForObject(
+				"select SAVINGS from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and NAME = ?", BigDecimal.class,
+				beneficiary);
+	}
+}
@@ -0,0 +1,107 @@
+package rewards.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import rewards.Dining;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+
+/**
+ * Unit tests that make sure dining files are parsed as expected.
+ */
+public class DiningFileReaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void testRead() throws IOException {
+		Path file = write("100.00,1234123412341234,1234567890,2022-12-29\n");
+		try (DiningFileReader reader = new DiningFileReader(file, 0)) {
+			Dining dining = reader.read();
+			assertEquals(MonetaryAmount.valueOf("100.00"), dining.getAmount());
+			assertEquals("1234123412341234", dining.getCreditCardNumber());
+			assertEquals("1234567890", dining.getMerchantNumber());
+			assertEquals(new SimpleDate(12, 29, 2022), dining.getDate());
+			assertEquals(Files.size(file), reader.getOffset());
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testReadLineTerminators() throws IOException {
+		Path file = write("100,1234123412341234,1234567890,2022-12-29\r\n\n50.5,1234123412340001,1234567890,2022-12-30");
+		try (DiningFileReader reader = new DiningFileReader(file, 0)) {
+			assertEquals(MonetaryAmount.valueOf("100.00"), reader.read().getAmount());
+			assertEquals(44, reader.getOffset());
+			Dining dining = reader.read();
+			assertEquals(MonetaryAmount.valueOf("50.50"), dining.getAmount());
+			assertEquals(new SimpleDate(12, 30, 2022), dining.getDate());
+			assertNull(reader.read());
+			assertEquals(Files.size(file), reader.getOffset());
+		}
+	}
+
+	@Test
+	public void testReadFromOffset() throws IOException {
+		Path file = write("100.00,1234123412341234,1234567890,2022-12-29\n25.00,1234123412340001,1234567890,2022-12-29\n");
+		try (DiningFileReader reader = new DiningFileReader(file, 46)) {
+			assertEquals("1234123412340001", reader.read().getCreditCardNumber());
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testReadAcrossBuffers() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			content.append(i).append(".01,12341234123400").append(i % 20 < 10 ? "0" : "").append(i % 20)
+					.append(",1234567890,2022-12-29\n");
+		}
+		Path file = write(content.toString());
+		try (DiningFileReader reader = new DiningFileReader(file, 0, 64)) {
+			for (int i = 0; i < 100; i++) {
+				Dining dining = reader.read();
+				assertEquals(MonetaryAmount.valueOf(i + ".01"), dining.getAmount());
+				assertEquals(String.format("12341234123400%02d", i % 20), dining.getCreditCardNumber());
+			}
+			assertNull(reader.read());
+		}
+	}
+
+	@Test
+	public void testReadMalformedRecords() throws IOException {
+		String[] records = { "100.00,1234123412341234,1234567890", "1OO.00,1234123412341234,1234567890,2022-12-29",
+				"100.001,1234123412341234,1234567890,2022-12-29", "100.00,,1234567890,2022-12-29",
+				"100.00,1234123412341234,1234567890,2022-13-29", "100.00,1234123412341234,1234567890,12/29/2022" };
+		for (String record : records) {
+			Path file = write(record + "\n");
+			try (DiningFileReader reader = new DiningFileReader(file, 0)) {
+				assertThrows(IllegalArgumentException.class, () -> reader.read(), record);
+			}
+		}
+	}
+
+	@Test
+	public void testReadTooLongLine() throws IOException {
+		Path file = write("100.00,1234123412341234,1234567890,2022-12-29\n");
+		try (DiningFileReader reader = new DiningFileReader(file, 0, 16)) {
+			assertThrows(IOException.class, () -> reader.read());
+		}
+	}
+
+	private Path write(String content) throws IOException {
+		return Files.write(Files.createTempFile(directory, "dinings", ".csv"), content.getBytes(StandardCharsets.US_ASCII));
+	}
+}
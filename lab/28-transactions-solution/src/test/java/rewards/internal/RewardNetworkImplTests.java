@@ -2,13 +2,22 @@ package rewards.internal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import rewards.AccountContribution;
+import rewards.BatchRewardConfirmation;
 import rewards.Dining;
 import rewards.RewardConfirmation;
+import rewards.internal.account.Account;
 import rewards.internal.account.AccountRepository;
 import rewards.internal.restaurant.RestaurantRepository;
 import rewards.internal.reward.RewardRepository;
@@ -69,4 +78,56 @@ public class RewardNetworkImplTests {
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Annabelle").getAmount());
 		assertEquals(MonetaryAmount.valueOf("4.00"), contribution.getDistribution("Corgan").getAmount());
 	}
+
+	@Test
+	public void testRewardForDiningBatch() {
+		rewardNetwork.setBatchSize(2);
+		Dining first = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		Dining unknownCard = Dining.createDining("100.00", "bogus", "1234567890");
+		Dining unknownMerchant = Dining.createDining("100.00", "1234123412341234", "bogus");
+		Dining last = Dining.createDining("50.00", "1234123412341234", "1234567890");
+
+		BatchRewardConfirmation result = rewardNetwork
+				.rewardAccountsFor(Arrays.asList(first, unknownCard, unknownMerchant, last));
+
+		// confirmations are reported in input order, failures separately
+		assertEquals(4, result.size());
+		assertEquals(2, result.getConfirmations().size());
+		assertEquals(MonetaryAmount.valueOf("8.00"), result.getConfirmation(0).getAccountContribution().getAmount());
+		assertNull(result.getConfirmation(1));
+		assertNull(result.getConfirmation(2));
+		assertEquals(MonetaryAmount.valueOf("4.00"), result.getConfirmation(3).getAccountContribution().getAmount());
+
+		assertEquals(2, result.getFailures().size());
+		assertEquals(1, result.getFailures().get(0).getIndex());
+		assertEquals(unknownCard, result.getFailures().get(0).getDining());
+		assertEquals(2, result.getFailures().get(1).getIndex());
+		assertEquals(unknownMerchant, result.getFailures().get(1).getDining());
+
+		// the contributions of the same account accumulate across chunks
+		assertEquals(MonetaryAmount.valueOf("6.00"), result.getConfirmation(3).getAccountContribution()
+				.getDistribution("Annabelle").getTotalSavings());
+	}
+
+	@Test
+	public void testRequiresNewRewardForDiningBatch() {
+		AtomicInteger chunks = new AtomicInteger();
+		AccountRepository accountRepo = new StubAccountRepository() {
+			public Map<String, Account> findByCreditCards(Collection<String> creditCardNumbers) {
+				chunks.incrementAndGet();
+				return super.findByCreditCards(creditCardNumbers);
+			}
+		};
+		RewardNetworkImplRequiresNew requiresNew = new RewardNetworkImplRequiresNew(accountRepo,
+				new StubRestaurantRepository(), new StubRewardRepository());
+		requiresNew.setBatchSize(2);
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+
+		BatchRewardConfirmation result = requiresNew
+				.rewardAccountsFor(Arrays.asList(dining, dining, dining, dining, dining));
+
+		assertEquals(5, result.getConfirmations().size());
+		assertEquals(3, chunks.get(), "batch size not used");
+		assertThrows(IllegalArgumentException.class, () -> requiresNew.setBatchSize(0));
+	}
 }
\ No newline at end of file
@@ -45,6 +45,16 @@ public class AccountTests {
 		assertFalse(account.isValid());
 	}
 
+	@Test
+	public void accountValidityFollowsBeneficiaryChanges() {
+		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+		assertFalse(account.isValid());
+		account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+		assertTrue(account.isValid());
+		account.addBeneficiary("Daniel", Percentage.valueOf("1%"));
+		assertFalse(account.isValid());
+	}
+
 	@Test
 	public void makeContribution() {
 		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
@@ -0,0 +1,75 @@
+package rewards.internal.account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the credit card index.
+ */
+public class CreditCardIndexTests {
+
+	private CreditCardIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		index = new CreditCardIndex();
+	}
+
+	@Test
+	public void testPutAndGet() {
+		index.put("1234123412341234", 0L);
+		index.put("1234123412340017", 17L);
+		assertEquals(0L, index.get("1234123412341234"));
+		assertEquals(17L, index.get("1234123412340017"));
+		assertEquals(CreditCardIndex.NO_ACCOUNT, index.get("1234123412340000"));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void testLeadingZerosAreSignificant() {
+		index.put("0123", 1L);
+		index.put("123", 2L);
+		assertEquals(1L, index.get("0123"));
+		assertEquals(2L, index.get("123"));
+	}
+
+	@Test
+	public void testNumbersThatCannotBePacked() {
+		index.put("1234-1234-1234-1234", 3L);
+		index.put("12341234123412341234", 4L);
+		assertEquals(3L, index.get("1234-1234-1234-1234"));
+		assertEquals(4L, index.get("12341234123412341234"));
+		index.remove("1234-1234-1234-1234");
+		assertEquals(CreditCardIndex.NO_ACCOUNT, index.get("1234-1234-1234-1234"));
+	}
+
+	@Test
+	public void testManyCreditCards() {
+		for (int i = 0; i < 10000; i++) {
+			index.put(creditCard(i), i);
+		}
+		// remove every third card, so removals have to repair probe sequences
+		for (int i = 0; i < 10000; i += 3) {
+			index.remove(creditCard(i));
+		}
+		for (int i = 0; i < 10000; i++) {
+			long expected = i % 3 == 0 ? CreditCardIndex.NO_ACCOUNT : i;
+			assertEquals(expected, index.get(creditCard(i)), "wrong account for " + creditCard(i));
+		}
+		assertEquals(6666, index.size());
+	}
+
+	@Test
+	public void testPutReplacesAccount() {
+		index.put("1234123412341234", 0L);
+		index.put("1234123412341234", 1L);
+		assertEquals(1L, index.get("1234123412341234"));
+		assertEquals(1, index.size());
+	}
+
+	private String creditCard(int i) {
+		return String.format("1234%012d", i);
+	}
+}
@@ -5,12 +5,17 @@ import common.money.Percentage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 
 import javax.sql.DataSource;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +64,104 @@ public class JdbcAccountRepositoryTests {
 		});
 	}
 
+	@Test
+	public void testFindAccountsByCreditCards() {
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412340003", "bogus"));
+		assertEquals(2, accounts.size(), "wrong number of accounts");
+		assertFalse(accounts.containsKey("bogus"), "unknown credit card should have no account");
+
+		Account account = accounts.get("1234123412341234");
+		assertEquals(Long.valueOf(0), account.getEntityId(), "wrong entity id");
+		assertEquals("123456789", account.getNumber(), "wrong account number");
+		assertEquals(2, account.getBeneficiaries().size(), "wrong beneficiary collection size");
+		assertEquals(Percentage.valueOf("50%"), account.getBeneficiary("Corgan").getAllocationPercentage(),
+				"wrong allocation percentage");
+
+		assertEquals(4, accounts.get("1234123412340003").getBeneficiaries().size(),
+				"wrong beneficiary collection size");
+	}
+
+	@Test
+	public void testFindAccountsByCreditCardsSharingAnAccount() {
+		new JdbcTemplate(dataSource).update("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (0, ?)",
+				"1234123412349999");
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412349999"));
+		assertSame(accounts.get("1234123412341234"), accounts.get("1234123412349999"),
+				"credit cards of one account should map to the same account object");
+		assertEquals(2, accounts.get("1234123412341234").getBeneficiaries().size(),
+				"wrong beneficiary collection size");
+	}
+
+	@Test
+	public void testFindAccountsByNoCreditCards() {
+		assertTrue(repository.findByCreditCards(Collections.<String>emptyList()).isEmpty());
+	}
+
+	@Test
+	public void testFindAccountByIndexedCreditCard() {
+		repository.loadCreditCardIndex();
+		Account account = repository.findByCreditCard("1234123412341234");
+		assertEquals("123456789", account.getNumber(), "wrong account number");
+		assertEquals(2, account.getBeneficiaries().size(), "Wrong number of beneficiaries");
+
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412340017", "1234123412349999"));
+		assertEquals(2, accounts.size());
+		assertEquals("123456789", accounts.get("1234123412341234").getNumber());
+	}
+
+	@Test
+	public void testFindAccountOfPartlyIndexedCreditCardsSharingAnAccount() {
+		// index the first of two credit cards of the account only
+		repository.findByCreditCard("1234123412341234");
+		new JdbcTemplate(dataSource).update("insert into T_ACCOUNT_CREDIT_CARD (ACCOUNT_ID, NUMBER) values (0, ?)",
+				"1234123412349999");
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412349999"));
+		assertSame(accounts.get("1234123412341234"), accounts.get("1234123412349999"),
+				"credit cards of one account should map to the same account object");
+		assertEquals(2, accounts.get("1234123412349999").getBeneficiaries().size(),
+				"wrong beneficiary collection size");
+	}
+
+	@Test
+	public void testFindAccountOfDeletedIndexedAccount() {
+		repository.loadCreditCardIndex();
+		new JdbcTemplate(dataSource).update("delete from T_ACCOUNT where ID = 0");
+		assertThrows(EmptyResultDataAccessException.class, () -> {
+			repository.findByCreditCard("1234123412341234");
+		});
+		assertTrue(repository.findByCreditCards(Collections.singletonList("1234123412341234")).isEmpty());
+	}
+
+	@Test
+	public void testFindAccountOfRemovedIndexedCreditCard() {
+		repository.loadCreditCardIndex();
+		new JdbcTemplate(dataSource).update("delete from T_ACCOUNT_CREDIT_CARD where NUMBER = ?", "1234123412341234");
+		assertThrows(EmptyResultDataAccessException.class, () -> {
+			repository.findByCreditCard("1234123412341234");
+		});
+		repository.loadCreditCardIndex();
+		assertTrue(repository.findByCreditCards(Collections.singletonList("1234123412341234")).isEmpty());
+	}
+
+	@Test
+	public void testFindAccountOfMovedIndexedCreditCard() {
+		repository.loadCreditCardIndex();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("update T_ACCOUNT_CREDIT_CARD set ACCOUNT_ID = 3 where NUMBER = ?", "1234123412341234");
+		String number = jdbcTemplate.queryForObject("select NUMBER from T_ACCOUNT where ID = 3", String.class);
+		assertEquals(number, repository.findByCreditCard("1234123412341234").getNumber());
+
+		jdbcTemplate.update("update T_ACCOUNT_CREDIT_CARD set ACCOUNT_ID = 0 where NUMBER = ?", "1234123412341234");
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412340017"));
+		assertEquals("123456789", accounts.get("1234123412341234").getNumber());
+		assertEquals(2, accounts.size());
+	}
+
 	@Test
 	public void testUpdateBeneficiaries() throws SQLException {
 		Account account = repository.findByCreditCard("1234123412341234");
@@ -67,6 +170,112 @@ public class JdbcAccountRepositoryTests {
 		verifyBeneficiaryTableUpdated();
 	}
 
+	@Test
+	public void testUpdateBeneficiariesOfSeveralAccounts() throws SQLException {
+		Map<String, Account> accounts = repository.findByCreditCards(Arrays.asList("1234123412341234",
+				"1234123412340017"));
+		for (Account account : accounts.values()) {
+			account.makeContribution(MonetaryAmount.valueOf("8.00"));
+		}
+		repository.updateBeneficiaries(accounts.values());
+		verifyBeneficiaryTableUpdated();
+
+		MonetaryAmount savings = MonetaryAmount.valueOf(new JdbcTemplate(dataSource).queryForObject(
+				"select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = 'Daniel'", String.class));
+		assertEquals(MonetaryAmount.valueOf("8.00"), savings);
+	}
+
+	@Test
+	public void testUpdateBeneficiariesSkipsUnchangedSavings() {
+		Account account = repository.findByCreditCard("1234123412341234");
+		// change the savings behind the repository's back: a write of the loaded savings would revert it
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("update T_ACCOUNT_BENEFICIARY set SAVINGS = 1.00 where ACCOUNT_ID = 0");
+		account.makeContribution(MonetaryAmount.valueOf("0.00"));
+		repository.updateBeneficiaries(account);
+		repository.updateBeneficiaries(Collections.singletonList(account));
+
+		String sql = "select count(*) from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and SAVINGS = 1.00";
+		assertEquals(2, jdbcTemplate.queryForObject(sql, Integer.class).intValue(), "unchanged savings written");
+	}
+
+	@Test
+	public void testUpdateBeneficiariesTwice() throws SQLException {
+		Account account = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+		verifyBeneficiaryTableUpdated();
+	}
+
+	@Test
+	public void testDeltaUpdatesKeepConcurrentCredits() throws SQLException {
+		repository.setDeltaUpdates(true);
+		// two rewards of the same account, both loaded before either is written
+		Account account = repository.findByCreditCard("1234123412341234");
+		Account sameAccount = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		sameAccount.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+		repository.updateBeneficiaries(sameAccount);
+		verifyBeneficiaryTableUpdated();
+	}
+
+	@Test
+	public void testDeltaUpdatesOfSeveralAccountsKeepConcurrentCredits() throws SQLException {
+		repository.setDeltaUpdates(true);
+		Account account = repository.findByCreditCards(Collections.singletonList("1234123412341234"))
+				.get("1234123412341234");
+		Account sameAccount = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("2.00"));
+		sameAccount.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(Collections.singletonList(account));
+		repository.updateBeneficiaries(sameAccount);
+		account.makeContribution(MonetaryAmount.valueOf("2.00"));
+		repository.updateBeneficiaries(Collections.singletonList(account));
+		verifyBeneficiaryTableUpdated();
+	}
+
+	@Test
+	public void testVersionedUpdateOfChangedAccountFails() throws SQLException {
+		repository.setVersioned(true);
+		Account account = repository.findByCreditCard("1234123412341234");
+		Account staleAccount = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+
+		staleAccount.makeContribution(MonetaryAmount.valueOf("4.00"));
+		assertThrows(OptimisticLockingFailureException.class, () -> repository.updateBeneficiaries(staleAccount));
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> repository.updateBeneficiaries(Collections.singletonList(staleAccount)));
+		assertEquals(2, accountVersion());
+
+		// savings as written by the up-to-date account
+		Account reloaded = repository.findByCreditCard("1234123412341234");
+		assertEquals(MonetaryAmount.valueOf("4.00"), reloaded.getBeneficiary("Annabelle").getSavings());
+	}
+
+	@Test
+	public void testVersionedDeltaUpdates() throws SQLException {
+		repository.setVersioned(true);
+		repository.setDeltaUpdates(true);
+		Account account = repository.findByCreditCard("1234123412341234");
+		Account sameAccount = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		sameAccount.makeContribution(MonetaryAmount.valueOf("4.00"));
+		repository.updateBeneficiaries(account);
+		repository.updateBeneficiaries(Collections.singletonList(sameAccount));
+		verifyBeneficiaryTableUpdated();
+		assertEquals(2, accountVersion());
+	}
+
+	private int accountVersion() {
+		return new JdbcTemplate(dataSource).queryForObject("select VERSION from T_ACCOUNT where ID = 0", Integer.class);
+	}
+
 	private void verifyBeneficiaryTableUpdated() throws SQLException {
 		String sql = "select SAVINGS from T_ACCOUNT_BENEFICIARY where NAME = ? and ACCOUNT_ID = ?";
 		PreparedStatement stmt = dataSource.getConnection().prepareStatement(sql);
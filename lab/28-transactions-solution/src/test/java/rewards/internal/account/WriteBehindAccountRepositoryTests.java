@@ -0,0 +1,199 @@
+package rewards.internal.account;
+
+import common.money.MonetaryAmount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+import rewards.Dining;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.restaurant.JdbcRestaurantRepository;
+import rewards.internal.reward.JdbcRewardRepository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the write-behind account repository in front of the JDBC account repository with a test data source.
+ */
+public class WriteBehindAccountRepositoryTests {
+
+	private WriteBehindAccountRepository repository;
+
+	private DataSource dataSource;
+
+	@BeforeEach
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		JdbcAccountRepository accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		repository = new WriteBehindAccountRepository(accountRepository, dataSource);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.stop();
+	}
+
+	@Test
+	public void testCoalesceCredits() {
+		for (int i = 0; i < 200; i++) {
+			Account account = repository.findByCreditCard("1234123412341234");
+			account.makeContribution(MonetaryAmount.valueOf("8.00"));
+			repository.updateBeneficiaries(account);
+		}
+		assertEquals(new BigDecimal("0.00"), storedSavingsOf("Annabelle"), "savings written before the flush");
+		assertEquals(MonetaryAmount.valueOf("800.00"),
+				repository.findByCreditCard("1234123412341234").getBeneficiary("Annabelle").getSavings(),
+				"pending credits not loaded");
+
+		repository.flush();
+		assertEquals(new BigDecimal("800.00"), storedSavingsOf("Annabelle"));
+		assertEquals(new BigDecimal("800.00"), storedSavingsOf("Corgan"));
+		assertEquals(400, repository.getCredits());
+		assertEquals(2, repository.getRowsWritten());
+		assertEquals(0, repository.getPending());
+		assertEquals(MonetaryAmount.valueOf("800.00"),
+				repository.findByCreditCard("1234123412341234").getBeneficiary("Annabelle").getSavings(),
+				"flushed credits loaded twice");
+	}
+
+	@Test
+	public void testCoalesceCreditsOfSeveralAccounts() {
+		for (int i = 0; i < 10; i++) {
+			repository.findByCreditCards(Arrays.asList("1234123412341234", "1234123412340003")).values()
+				.forEach(account -> {
+					account.makeContribution(MonetaryAmount.valueOf("8.00"));
+					repository.updateBeneficiaries(Collections.singletonList(account));
+				});
+		}
+		repository.flush();
+		assertEquals(new BigDecimal("40.00"), storedSavingsOf("Annabelle"));
+		assertEquals(6, repository.getRowsWritten());
+	}
+
+	@Test
+	public void testTakeCreditsOnlyOnCommit() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transactionTemplate.executeWithoutResult(status -> {
+			Account account = repository.findByCreditCard("1234123412341234");
+			account.makeContribution(MonetaryAmount.valueOf("8.00"));
+			repository.updateBeneficiaries(account);
+			assertEquals(0, repository.getPending(), "credits taken before commit");
+			status.setRollbackOnly();
+		});
+		assertEquals(0, repository.getPending(), "credits of a rolled back transaction taken");
+		assertEquals(0, journalEntries(), "credits of a rolled back transaction journaled");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Account account = repository.findByCreditCard("1234123412341234");
+			account.makeContribution(MonetaryAmount.valueOf("8.00"));
+			repository.updateBeneficiaries(account);
+		});
+		assertEquals(2, repository.getPending());
+		assertEquals(2, journalEntries());
+	}
+
+	@Test
+	public void testFlushOnMaxPending() throws InterruptedException {
+		repository.setFlushInterval(60000);
+		repository.setMaxPending(2);
+		repository.start();
+		Account account = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("8.00"));
+		repository.updateBeneficiaries(account);
+
+		long deadline = System.currentTimeMillis() + 10000;
+		while (repository.getPending() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(new BigDecimal("4.00"), storedSavingsOf("Annabelle"));
+	}
+
+	@Test
+	public void testStopFlushes() {
+		repository.start();
+		Account account = repository.findByCreditCard("1234123412341234");
+		account.makeContribution(MonetaryAmount.valueOf("8.00"));
+		repository.updateBeneficiaries(account);
+		repository.stop();
+		assertEquals(new BigDecimal("4.00"), storedSavingsOf("Corgan"));
+	}
+
+	@Test
+	public void testReplayRewardsAfterCrash() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		RewardNetwork rewardNetwork = rewardNetwork(repository);
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		for (int i = 0; i < 10; i++) {
+			transactionTemplate.executeWithoutResult(status -> rewardNetwork.rewardAccountFor(dining));
+		}
+		repository.flush();
+		for (int i = 0; i < 5; i++) {
+			transactionTemplate.executeWithoutResult(status -> rewardNetwork.rewardAccountFor(dining));
+		}
+		assertEquals(new BigDecimal("40.00"), storedSavingsOf("Annabelle"), "savings written before the flush");
+
+		// Crash: the repository is dropped without stopping, its credits pending with it
+		JdbcAccountRepository accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		repository = new WriteBehindAccountRepository(accountRepository, dataSource);
+		repository.start();
+		assertEquals(new BigDecimal("60.00"), storedSavingsOf("Annabelle"));
+		assertEquals(new BigDecimal("60.00"), storedSavingsOf("Corgan"));
+
+		assertEquals(0, repository.replay(), "flushed credits replayed again");
+		transactionTemplate.executeWithoutResult(status -> rewardNetwork(repository).rewardAccountFor(dining));
+		repository.flush();
+		assertEquals(0, repository.replay());
+		assertEquals(new BigDecimal("64.00"), storedSavingsOf("Annabelle"));
+	}
+
+	@Test
+	public void testStartOnDatabaseWithRewards() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		JdbcAccountRepository accountRepository = new JdbcAccountRepository();
+		accountRepository.setDataSource(dataSource);
+		RewardNetwork rewardNetwork = rewardNetwork(accountRepository);
+		Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+		for (int i = 0; i < 5; i++) {
+			transactionTemplate.executeWithoutResult(status -> rewardNetwork.rewardAccountFor(dining));
+		}
+		assertEquals(new BigDecimal("20.00"), storedSavingsOf("Annabelle"));
+
+		// rewards credited by another repository are not credited again
+		repository.start();
+		assertEquals(new BigDecimal("20.00"), storedSavingsOf("Annabelle"));
+		assertEquals(new BigDecimal("20.00"), storedSavingsOf("Corgan"));
+	}
+
+	private RewardNetwork rewardNetwork(AccountRepository accountRepository) {
+		JdbcRestaurantRepository restaurantRepository = new JdbcRestaurantRepository();
+		restaurantRepository.setDataSource(dataSource);
+		JdbcRewardRepository rewardRepository = new JdbcRewardRepository();
+		rewardRepository.setDataSource(dataSource);
+		return new RewardNetworkImpl(accountRepository, restaurantRepository, rewardRepository);
+	}
+
+	private int journalEntries() {
+		return new JdbcTemplate(dataSource).queryForObject("select count(*) from T_SAVINGS_PENDING", Integer.class);
+	}
+
+	private BigDecimal storedSavingsOf(String beneficiary) {
+		return new JdbcTemplate(dataSource).queryForObject(
+				"select SAVINGS from T_ACCOUNT_BENEFICIARY where ACCOUNT_ID = 0 and NAME = ?", BigDecimal.class,
+				beneficiary);
+	}
+}
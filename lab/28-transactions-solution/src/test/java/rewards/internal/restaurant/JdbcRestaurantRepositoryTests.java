@@ -8,6 +8,9 @@ import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 
 import javax.sql.DataSource;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -42,6 +45,15 @@ public class JdbcRestaurantRepositoryTests {
 		});
 	}
 
+	@Test
+	public void testFindRestaurantsByMerchantNumbers() {
+		Map<String, Restaurant> restaurants = repository.findByMerchantNumbers(Arrays.asList("1234567890", "bogus"));
+		assertEquals(1, restaurants.size(), "wrong number of restaurants");
+		Restaurant restaurant = restaurants.get("1234567890");
+		assertEquals("AppleBees", restaurant.getName(), "the name is wrong");
+		assertEquals(Percentage.valueOf("8%"), restaurant.getBenefitPercentage(), "the benefitPercentage is wrong");
+	}
+
 	private DataSource createTestDataSource() {
 		return new EmbeddedDatabaseBuilder()
 			.setName("rewards")
@@ -0,0 +1,136 @@
+package rewards.internal.reward;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Tests the block confirmation number generator against a test data source to verify it hands out unique numbers
+ * while querying the sequence only once per block.
+ */
+public class BlockConfirmationNumberGeneratorTests {
+
+	private BlockConfirmationNumberGenerator generator;
+
+	private DataSource dataSource;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		dataSource = createTestDataSource();
+		generator = new BlockConfirmationNumberGenerator(dataSource, 10);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		generator.close();
+	}
+
+	@Test
+	public void testNumbersOfFirstBlock() {
+		// the sequence starts with 1, so the first block is 1 to 10
+		for (int i = 1; i <= 10; i++) {
+			assertEquals(String.valueOf(i), generator.nextConfirmationNumber());
+		}
+	}
+
+	@Test
+	public void testOneSequenceValuePerBlock() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			generator.nextConfirmationNumber();
+		}
+		// 10 blocks used, plus at most one reserved in advance
+		long sequenceValue = currentSequenceValue();
+		assertTrue(sequenceValue >= 100 && sequenceValue <= 110, "wrong number of blocks reserved: " + sequenceValue);
+	}
+
+	@Test
+	public void testRestartWithDifferentBlockSize() {
+		Set<String> numbers = new HashSet<String>();
+		for (int blockSize : new int[] { 25, 10, 40, 1 }) {
+			generator.close();
+			generator = new BlockConfirmationNumberGenerator(dataSource, blockSize);
+			for (int i = 0; i < 30; i++) {
+				String number = generator.nextConfirmationNumber();
+				assertTrue(numbers.add(number), number + " handed out again with block size " + blockSize);
+			}
+		}
+	}
+
+	@Test
+	public void testNumbersAreUniqueUnderConcurrentUse() throws Exception {
+		Set<String> numbers = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int t = 0; t < 8; t++) {
+				tasks.add(() -> {
+					for (int i = 0; i < 1000; i++) {
+						numbers.add(generator.nextConfirmationNumber());
+					}
+					return null;
+				});
+			}
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(8000, numbers.size(), "confirmation numbers should be unique");
+	}
+
+	@Test
+	public void testNumbersAreHigherThanSequenceNumbers() {
+		SequenceConfirmationNumberGenerator sequenceGenerator = new SequenceConfirmationNumberGenerator(dataSource);
+		long lastSequenceNumber = 0;
+		for (int i = 0; i < 25; i++) {
+			lastSequenceNumber = Long.parseLong(sequenceGenerator.nextConfirmationNumber());
+		}
+		assertTrue(Long.parseLong(generator.nextConfirmationNumber()) > lastSequenceNumber);
+		// and the other way round
+		long lastBlockNumber = 0;
+		for (int i = 0; i < 10; i++) {
+			lastBlockNumber = Long.parseLong(generator.nextConfirmationNumber());
+		}
+		assertTrue(Long.parseLong(sequenceGenerator.nextConfirmationNumber()) > lastBlockNumber);
+	}
+
+	@Test
+	public void testInvalidBlockSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new BlockConfirmationNumberGenerator(dataSource, 0);
+		});
+	}
+
+	private long currentSequenceValue() {
+		// the value the next reservation would get, minus one
+		String sql = "select next value for S_REWARD_CONFIRMATION_NUMBER from DUAL_REWARD_CONFIRMATION_NUMBER";
+		return new JdbcTemplate(dataSource).queryForObject(sql, Long.class) - 1;
+	}
+
+	private DataSource createTestDataSource() {
+		return new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+	}
+}
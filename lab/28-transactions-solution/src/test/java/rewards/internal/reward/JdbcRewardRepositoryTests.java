@@ -5,6 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import javax.sql.DataSource;
@@ -60,6 +62,32 @@ public class JdbcRewardRepositoryTests {
 		verifyRewardInserted(confirmation, dining);
 	}
 
+	@Test
+	public void testCreateRewards() throws SQLException {
+		Dining first = Dining.createDining("100.00", "1234123412341234", "0123456789");
+		Dining second = Dining.createDining("50.00", "1234123412341234", "0123456789");
+
+		Account account = new Account("1", "Keith and Keri Donald");
+		account.setEntityId(0L);
+		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+		account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+
+		AccountContribution firstContribution = account.makeContribution(MonetaryAmount.valueOf("8.00"));
+		AccountContribution secondContribution = account.makeContribution(MonetaryAmount.valueOf("4.00"));
+		List<RewardConfirmation> confirmations = repository.confirmRewards(
+				Arrays.asList(firstContribution, secondContribution), Arrays.asList(first, second));
+		assertEquals(2, confirmations.size(), "wrong number of confirmations");
+		assertEquals(firstContribution, confirmations.get(0).getAccountContribution(), "wrong contribution object");
+		assertEquals(secondContribution, confirmations.get(1).getAccountContribution(), "wrong contribution object");
+
+		assertEquals(2, getRewardCount());
+		String sql = "select * from T_REWARD where CONFIRMATION_NUMBER = ?";
+		verifyInsertedValues(confirmations.get(0), first,
+				jdbcTemplate.queryForMap(sql, confirmations.get(0).getConfirmationNumber()));
+		verifyInsertedValues(confirmations.get(1), second,
+				jdbcTemplate.queryForMap(sql, confirmations.get(1).getConfirmationNumber()));
+	}
+
 	private void verifyRewardInserted(RewardConfirmation confirmation, Dining dining) throws SQLException {
 		assertEquals(1, getRewardCount());
 		String sql = "select * from T_REWARD where CONFIRMATION_NUMBER = ?";
@@ -0,0 +1,24 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.Aspects;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts account fetches with {@link AccountAspect}, by proxying the
+ * controller, or woven into its class at compile time when built with the
+ * "ajc" profile. Spring never proxies with an aspect compiled by ajc, so then
+ * the aspect configured is the instance the woven class calls.
+ */
+@Configuration
+public class AccountAspectConfiguration {
+
+    @Bean
+    public AccountAspect accountAspect(MeterRegistry meterRegistry) {
+        AccountAspect accountAspect = Aspects.hasAspect(AccountAspect.class)
+                ? Aspects.aspectOf(AccountAspect.class) : new AccountAspect();
+        accountAspect.setMeterRegistry(meterRegistry);
+        return accountAspect;
+    }
+}
@@ -1,6 +1,8 @@
 package accounts.web;
 
 import accounts.AccountManager;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import common.money.Percentage;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
@@ -9,13 +11,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -27,37 +35,91 @@ import java.util.List;
 @RestController
 public class AccountController {
 
+	/**
+	 * The largest page of accounts returned at once.
+	 */
+	public static final int MAX_PAGE_SIZE = 1000;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	private AccountManager accountManager;
 	private Counter counter;
+	private ObjectMapper objectMapper;
 
 	/**
 	 * Creates a new AccountController with a given account manager.
 	 */
 	@Autowired
-	public AccountController(AccountManager accountManager, MeterRegistry registry) {
+	public AccountController(AccountManager accountManager, MeterRegistry registry, ObjectMapper objectMapper) {
 		this.accountManager = accountManager;
 		this.counter = registry.counter("account.fetch", "type", "fromCode");
+		this.objectMapper = objectMapper;
 	}
 
 	/**
-	 * Provide a list of all accounts.
+	 * Provide a list of all accounts. The accounts are written to the
+	 * response as they are read from the database, so the memory needed does
+	 * not grow with the number of accounts.
 	 */
 	@GetMapping(value = "/accounts")
     @Timed(value="account.timer", extraTags = {"source", "accountSummary"})
-	public List<Account> accountSummary() {
-		return accountManager.getAllAccounts();
+	public void accountSummary(HttpServletResponse response) throws IOException {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+			generator.writeStartArray();
+			accountManager.forEachAccount(account -> {
+				try {
+					generator.writeObject(account);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generator.writeEndArray();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
 	}
 
 	/**
-	 * Provide the details of an account with the given id.
+	 * Provide a page of at most <code>limit</code> accounts with an id after
+	 * the given one, ordered by id. If there may be more accounts, the Link
+	 * header points to the next page.
+	 */
+	@GetMapping(value = "/accounts", params = "limit")
+	@Timed(value="account.timer", extraTags = {"source", "accountPage"})
+	public ResponseEntity<List<Account>> accountPage(@RequestParam(required = false) Long after,
+			@RequestParam int limit) {
+		if (limit < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+		limit = Math.min(limit, MAX_PAGE_SIZE);
+		List<Account> accounts = accountManager.getAccounts(after, limit);
+		if (accounts.size() < limit) {
+			return ResponseEntity.ok(accounts);
+		}
+		URI next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("after", accounts.get(accounts.size() - 1).getEntityId())
+				.replaceQueryParam("limit", limit).build().toUri();
+		return ResponseEntity.ok().header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"").body(accounts);
+	}
+
+	/**
+	 * Provide the details of an account with the given id. The ETag is the
+	 * version of the account: if the client already has it, answers 304 Not
+	 * Modified without loading the account.
 	 */
 	@Timed(value="account.timer", extraTags = {"source", "accountDetails"})
 	@GetMapping(value = "/accounts/{id}")
-	public Account accountDetails(@PathVariable int id) {
+	public Account accountDetails(@PathVariable int id, WebRequest request) {
 		counter.increment();
 
+		Long version = accountManager.getAccountVersion((long) id);
+		if (version == null) {
+			throw new IllegalArgumentException("No such account with id " + id);
+		}
+		if (request.checkNotModified(eTag(version))) {
+			return null;
+		}
 		return retrieveAccount(id);
 	}
 
@@ -74,11 +136,16 @@ public class AccountController {
 
 	/**
 	 * Returns the Beneficiary with the given name for the Account with the given
-	 * id.
+	 * id. Conditional like {@link #accountDetails(int, WebRequest)}.
 	 */
 	@GetMapping(value = "/accounts/{accountId}/beneficiaries/{beneficiaryName}")
 	public Beneficiary getBeneficiary(@PathVariable("accountId") int accountId,
-			@PathVariable("beneficiaryName") String beneficiaryName) {
+			@PathVariable("beneficiaryName") String beneficiaryName, WebRequest request) {
+		Long version = accountManager.getBeneficiaryVersion((long) accountId, beneficiaryName);
+		if (version != null && request.checkNotModified(eTag(version))) {
+			return null;
+		}
+		// Unknown accounts and beneficiaries end up as 404 here
 		return retrieveAccount(accountId).getBeneficiary(beneficiaryName);
 	}
 
@@ -158,6 +225,13 @@ public class AccountController {
 		// return empty 409
 	}
 
+	/**
+	 * Returns the (strong) ETag of a resource with the given version.
+	 */
+	private String eTag(long version) {
+		return "\"" + Long.toHexString(version) + "\"";
+	}
+
 	/**
 	 * Finds the Account with the given id, throwing an IllegalArgumentException if
 	 * there is no such Account.
@@ -0,0 +1,36 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import rewards.internal.restaurant.CachingRestaurantRepository;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import java.time.Duration;
+
+/**
+ * Puts a read-through cache in front of the JPA restaurant repository, so a
+ * dining at a known restaurant costs no query, and publishes its statistics
+ * as the standard "cache.*" meters tagged with cache=restaurants.
+ */
+@Configuration
+public class RestaurantCacheConfiguration {
+
+    @Bean
+    @Primary
+    public CachingRestaurantRepository cachingRestaurantRepository(
+            @Qualifier("restaurantRepository") RestaurantRepository restaurantRepository,
+            @Value("${rewards.restaurant-cache.max-size:1000}") int maxSize,
+            @Value("${rewards.restaurant-cache.time-to-live:10m}") Duration timeToLive) {
+        return new CachingRestaurantRepository(restaurantRepository, maxSize, timeToLive);
+    }
+
+    @Bean
+    public MeterBinder restaurantCacheMetrics(CachingRestaurantRepository cachingRestaurantRepository) {
+        return new RestaurantCacheMetrics(cachingRestaurantRepository, "restaurants", Tags.empty());
+    }
+}
@@ -0,0 +1,52 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import rewards.internal.restaurant.CachingRestaurantRepository;
+
+/**
+ * Exposes the hit, miss, put and eviction counts of the restaurant cache to
+ * Micrometer, using the same meter names as Spring's own caches.
+ */
+public class RestaurantCacheMetrics extends CacheMeterBinder<CachingRestaurantRepository> {
+
+    public RestaurantCacheMetrics(CachingRestaurantRepository cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    @Override
+    protected Long size() {
+        CachingRestaurantRepository cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        CachingRestaurantRepository cache = getCache();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        CachingRestaurantRepository cache = getCache();
+        return cache == null ? null : cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        CachingRestaurantRepository cache = getCache();
+        return cache == null ? null : cache.getEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        CachingRestaurantRepository cache = getCache();
+        return cache == null ? 0 : cache.getPutCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        // nothing beyond the standard cache meters
+    }
+}
@@ -0,0 +1,121 @@
+package accounts.web;
+
+import common.datetime.SimpleDate;
+import common.money.MonetaryAmount;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import rewards.Dining;
+import rewards.submission.AsyncRewardNetwork;
+import rewards.submission.RewardSubmission;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A controller rewarding dinings asynchronously: a dining posted to
+ * <code>/rewards</code> is accepted at once (202) with a ticket, and
+ * <code>/rewards/{ticket}</code> tells whether it has been rewarded yet and,
+ * once it has, with which confirmation.
+ */
+@RestController
+public class RewardController {
+
+    private final AsyncRewardNetwork asyncRewardNetwork;
+
+    public RewardController(AsyncRewardNetwork asyncRewardNetwork) {
+        this.asyncRewardNetwork = asyncRewardNetwork;
+    }
+
+    /**
+     * Queues a dining to be rewarded. Returns 202 Accepted with the ticket and
+     * the location to poll, or 400 Bad Request if the dining is incomplete.
+     */
+    @PostMapping(value = "/rewards")
+    public ResponseEntity<Map<String, String>> submitDining(@RequestBody DiningRequest request) {
+        if (!request.isValid()) {
+            return ResponseEntity.badRequest().build();
+        }
+        String ticket = asyncRewardNetwork.submit(request.toDining());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{ticket}").buildAndExpand(ticket)
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(Collections.singletonMap("ticket", ticket));
+    }
+
+    /**
+     * Returns how far a submitted dining has got, or 404 Not Found if the
+     * ticket is unknown.
+     */
+    @GetMapping(value = "/rewards/{ticket}")
+    public ResponseEntity<RewardSubmission> submission(@PathVariable String ticket) {
+        RewardSubmission submission = asyncRewardNetwork.getSubmission(ticket);
+        return submission == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(submission);
+    }
+
+    /**
+     * A dining as posted, e.g.
+     * <code>{"amount":100.00,"creditCardNumber":"1234123412341234","merchantNumber":"1234567890","date":"2024-05-01"}</code>.
+     * The date defaults to today.
+     */
+    public static class DiningRequest {
+
+        private BigDecimal amount;
+        private String creditCardNumber;
+        private String merchantNumber;
+        private LocalDate date;
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public String getCreditCardNumber() {
+            return creditCardNumber;
+        }
+
+        public void setCreditCardNumber(String creditCardNumber) {
+            this.creditCardNumber = creditCardNumber;
+        }
+
+        public String getMerchantNumber() {
+            return merchantNumber;
+        }
+
+        public void setMerchantNumber(String merchantNumber) {
+            this.merchantNumber = merchantNumber;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        /**
+         * Is every field there, and does it fit the submission queue?
+         */
+        boolean isValid() {
+            return amount != null && amount.signum() > 0 && amount.compareTo(new BigDecimal("1000000")) < 0
+                    && creditCardNumber != null && creditCardNumber.length() == 16
+                    && merchantNumber != null && merchantNumber.length() == 10;
+        }
+
+        Dining toDining() {
+            SimpleDate diningDate = date == null ? SimpleDate.today()
+                    : new SimpleDate(date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+            return new Dining(new MonetaryAmount(amount), creditCardNumber, merchantNumber, diningDate);
+        }
+    }
+}
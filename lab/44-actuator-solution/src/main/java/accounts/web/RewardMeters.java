@@ -0,0 +1,156 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInvocation;
+import rewards.Dining;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Meters the rewards of the application's <code>RewardNetworkImpl</code>,
+ * called around it and its repositories by the proxies of
+ * {@link RewardMetricsConfiguration}: every stage of a reward as a
+ * "rewards.stage" timer tagged with the stage, the whole reward as a
+ * "rewards.reward" timer tagged with its outcome, and the SQL statements of a
+ * reward as a "rewards.sql.statements" summary.
+ * <p>
+ * Stages are only timed while a reward is in progress on the thread, and not
+ * again within a stage, as when the restaurant cache calls the JPA
+ * repository. The account is written by flushing the persistence context
+ * before the reward is confirmed, timed as the "updateBeneficiaries" stage,
+ * instead of when the transaction commits. Statements are counted by a
+ * {@link StatementCountingDataSource} beneath the connection pool. Every
+ * reward is also recorded in the {@link RewardStatistics} of the "rewards"
+ * endpoint.
+ */
+public class RewardMeters {
+
+    public static final String STAGE_TIMER = "rewards.stage";
+
+    public static final String REWARD_TIMER = "rewards.reward";
+
+    public static final String STATEMENTS_SUMMARY = "rewards.sql.statements";
+
+    /**
+     * Set while a reward is in progress on the thread: true between its
+     * stages, false within one.
+     */
+    private static final ThreadLocal<Boolean> betweenStages = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    private final RewardStatistics statistics;
+
+    private EntityManager entityManager;
+
+    private final Timer findByCreditCard;
+
+    private final Timer findByMerchantNumber;
+
+    private final Timer updateBeneficiaries;
+
+    private final Timer confirmReward;
+
+    private final Timer rewarded;
+
+    private final DistributionSummary statements;
+
+    public RewardMeters(MeterRegistry registry, RewardStatistics statistics) {
+        this.registry = registry;
+        this.statistics = statistics;
+        this.findByCreditCard = stageTimer("findByCreditCard");
+        this.findByMerchantNumber = stageTimer("findByMerchantNumber");
+        this.updateBeneficiaries = stageTimer("updateBeneficiaries");
+        this.confirmReward = stageTimer("confirmReward");
+        this.rewarded = rewardTimer(null);
+        this.statements = DistributionSummary.builder(STATEMENTS_SUMMARY)
+                .description("SQL statements executed per reward, each a round trip to the database")
+                .baseUnit("statements")
+                .register(registry);
+    }
+
+    @PersistenceContext
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Meters a call of <code>RewardNetwork.rewardAccountFor</code>, including
+     * the commit when the reward runs in a transaction of its own.
+     */
+    public Object reward(MethodInvocation invocation) throws Throwable {
+        Dining dining = (Dining) invocation.getArguments()[0];
+        long statementsBefore = StatementCountingDataSource.getStatementCount();
+        Timer.Sample sample = Timer.start(registry);
+        Timer timer = rewarded;
+        Throwable failure = null;
+        statistics.started();
+        betweenStages.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            timer = rewardTimer(e);
+            failure = e;
+            throw e;
+        } finally {
+            betweenStages.remove();
+            statistics.rewarded(dining, sample.stop(timer), failure);
+            statements.record(StatementCountingDataSource.getStatementCount() - statementsBefore);
+        }
+    }
+
+    public Object findByCreditCard(MethodInvocation invocation) throws Throwable {
+        return stage(findByCreditCard, invocation);
+    }
+
+    public Object findByMerchantNumber(MethodInvocation invocation) throws Throwable {
+        return stage(findByMerchantNumber, invocation);
+    }
+
+    /**
+     * Writes the account contribution before confirming the reward, so both
+     * are timed on their own.
+     */
+    public Object confirmReward(MethodInvocation invocation) throws Throwable {
+        if (Boolean.TRUE.equals(betweenStages.get())) {
+            updateBeneficiaries.record(entityManager::flush);
+        }
+        return stage(confirmReward, invocation);
+    }
+
+    private Object stage(Timer timer, MethodInvocation invocation) throws Throwable {
+        if (!Boolean.TRUE.equals(betweenStages.get())) {
+            return invocation.proceed();
+        }
+        Timer.Sample sample = Timer.start(registry);
+        betweenStages.set(Boolean.FALSE);
+        try {
+            return invocation.proceed();
+        } finally {
+            betweenStages.set(Boolean.TRUE);
+            sample.stop(timer);
+        }
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time taken by a stage of rewarding a dining")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    /**
+     * Returns the timer of the rewards with the given outcome: tagged with the
+     * simple name of the exception thrown, so the tag only takes a few values.
+     */
+    private Timer rewardTimer(Throwable exception) {
+        return Timer.builder(REWARD_TIMER)
+                .description("Time taken to reward a dining, including the commit")
+                .tag("outcome", exception == null ? "success" : "failure")
+                .tag("exception", exception == null ? "none" : exception.getClass().getSimpleName())
+                .register(registry);
+    }
+}
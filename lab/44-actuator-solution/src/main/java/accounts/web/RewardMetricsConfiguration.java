@@ -0,0 +1,110 @@
+package accounts.web;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+import rewards.RewardNetwork;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.RestaurantRepository;
+import rewards.internal.reward.RewardRepository;
+
+/**
+ * Meters the rewards of the application's reward network with
+ * {@link RewardMeters}, publishing the time of every stage of a reward as
+ * "rewards.stage" and the SQL statements it executes as
+ * "rewards.sql.statements", and recording its recent performance for the
+ * "rewards" endpoint.
+ * <p>
+ * The reward network and its repositories are wrapped in proxies calling the
+ * meters, so <code>RewardNetworkImpl</code> remains the only implementation
+ * of the use case. The reward network's proxy wraps its transactional one, so
+ * a reward is timed with its commit.
+ */
+@Configuration
+public class RewardMetricsConfiguration {
+
+    @Bean
+    public RewardMeters rewardMeters(MeterRegistry registry, RewardStatistics rewardStatistics) {
+        return new RewardMeters(registry, rewardStatistics);
+    }
+
+    @Bean
+    public RewardStatistics rewardStatistics() {
+        return new RewardStatistics();
+    }
+
+    /**
+     * Has the connection pool get its connections from a
+     * {@link StatementCountingDataSource}, before the pool starts.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource && ((HikariDataSource) bean).getDataSource() == null) {
+                    HikariDataSource pool = (HikariDataSource) bean;
+                    pool.setDataSource(new StatementCountingDataSource(new DriverDataSource(pool.getJdbcUrl(),
+                            pool.getDriverClassName(), pool.getDataSourceProperties(), pool.getUsername(),
+                            pool.getPassword())));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Wraps the reward network and its repositories in proxies calling the
+     * {@link RewardMeters}, looked up on first use so the meter registry is
+     * not created before its own post-processors.
+     */
+    @Bean
+    public static BeanPostProcessor rewardMetersPostProcessor(ObjectProvider<RewardMeters> rewardMeters) {
+        SingletonSupplier<RewardMeters> meters = SingletonSupplier.of(rewardMeters::getObject);
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RewardNetwork) {
+                    return meter(bean, "rewardAccountFor",
+                            invocation -> meters.obtain().reward(invocation));
+                }
+                if (bean instanceof AccountRepository) {
+                    return meter(bean, "findByCreditCard",
+                            invocation -> meters.obtain().findByCreditCard(invocation));
+                }
+                if (bean instanceof RestaurantRepository) {
+                    return meter(bean, "findByMerchantNumber",
+                            invocation -> meters.obtain().findByMerchantNumber(invocation));
+                }
+                if (bean instanceof RewardRepository) {
+                    return meter(bean, "confirmReward",
+                            invocation -> meters.obtain().confirmReward(invocation));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Proxies the bean's class, like Spring Boot's own proxies, so beans
+     * injected by class such as the restaurant cache still are.
+     */
+    private static Object meter(Object bean, String methodName, MethodInterceptor interceptor) {
+        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(interceptor);
+        advisor.setMappedName(methodName);
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(advisor);
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,250 @@
+package accounts.web;
+
+import rewards.Dining;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The recent performance of the reward network: rewards per second over the
+ * last 1, 5 and 15 minutes, the latencies of the last rewards, the rewards in
+ * flight, the failures by exception and the last rewards themselves.
+ * <p>
+ * Everything is kept in fixed-size ring buffers updated with atomic
+ * operations only, so recording a reward never waits for a reader, and a
+ * reader gets a view that may miss the rewards recorded while reading.
+ */
+public class RewardStatistics {
+
+    /**
+     * By default the latencies of the last 1024 rewards are kept.
+     */
+    public static final int DEFAULT_LATENCY_SAMPLES = 1024;
+
+    /**
+     * By default the last 128 rewards are kept, to find the slowest.
+     */
+    public static final int DEFAULT_RECENT_REWARDS = 128;
+
+    /**
+     * Rewards are counted per second over the longest window, 15 minutes.
+     */
+    private static final int SECONDS = 15 * 60;
+
+    /**
+     * A second slot holds the second in its high bits and the rewards
+     * counted in it in its low bits.
+     */
+    private static final int COUNT_BITS = 24;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final Clock clock;
+
+    private final AtomicLongArray seconds = new AtomicLongArray(SECONDS);
+
+    private final AtomicLongArray latencies;
+
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    private final AtomicReferenceArray<Reward> recentRewards;
+
+    private final AtomicLong rewardCount = new AtomicLong();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public RewardStatistics() {
+        this(Clock.systemUTC(), DEFAULT_LATENCY_SAMPLES, DEFAULT_RECENT_REWARDS);
+    }
+
+    public RewardStatistics(Clock clock, int latencySamples, int recentRewards) {
+        if (latencySamples < 1) {
+            throw new IllegalArgumentException("Latency samples must be positive; your value was " + latencySamples);
+        }
+        if (recentRewards < 1) {
+            throw new IllegalArgumentException("Recent rewards must be positive; your value was " + recentRewards);
+        }
+        this.clock = clock;
+        this.latencies = new AtomicLongArray(latencySamples);
+        this.recentRewards = new AtomicReferenceArray<>(recentRewards);
+    }
+
+    /**
+     * Records that a reward has started; every call must be followed by a
+     * call to {@link #rewarded(Dining, long, Throwable)}.
+     */
+    public void started() {
+        inFlight.increment();
+    }
+
+    /**
+     * Records a reward that has finished.
+     * @param dining the dining rewarded
+     * @param nanos the time the reward took
+     * @param exception what the reward failed with, null if it succeeded
+     */
+    public void rewarded(Dining dining, long nanos, Throwable exception) {
+        inFlight.decrement();
+        Instant now = clock.instant();
+        count(now.getEpochSecond());
+        latencies.set((int) (latencyCount.getAndIncrement() % latencies.length()), nanos);
+        String error = exception == null ? null : exception.getClass().getSimpleName();
+        if (error != null) {
+            LongAdder count = errors.get(error);
+            if (count == null) {
+                count = errors.computeIfAbsent(error, e -> new LongAdder());
+            }
+            count.increment();
+        }
+        recentRewards.set((int) (rewardCount.getAndIncrement() % recentRewards.length()),
+                new Reward(dining, nanos, now, error));
+    }
+
+    private void count(long second) {
+        int slot = (int) (second % SECONDS);
+        long value;
+        long counted;
+        do {
+            value = seconds.get(slot);
+            counted = value >>> COUNT_BITS == second ? value + 1 : second << COUNT_BITS | 1;
+        } while (!seconds.compareAndSet(slot, value, counted));
+    }
+
+    /**
+     * Returns the number of rewards in flight.
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * Returns the number of rewards finished in the last given minutes, at
+     * most 15, the current second included.
+     */
+    public long getRewardCount(int minutes) {
+        if (minutes < 1 || minutes * 60 > SECONDS) {
+            throw new IllegalArgumentException("Minutes must be from 1 to 15; your value was " + minutes);
+        }
+        long now = clock.instant().getEpochSecond();
+        long count = 0;
+        for (int i = 0; i < SECONDS; i++) {
+            long value = seconds.get(i);
+            long second = value >>> COUNT_BITS;
+            if (second <= now && now - second < minutes * 60L) {
+                count += value & COUNT_MASK;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the given percentiles, from 0 to 1, of the latencies of the
+     * last rewards, in milliseconds, or an empty map if there was none.
+     */
+    public Map<Double, Double> getLatencyPercentiles(double... percentiles) {
+        long[] sample = new long[(int) Math.min(latencyCount.get(), latencies.length())];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = latencies.get(i);
+        }
+        Arrays.sort(sample);
+        Map<Double, Double> result = new LinkedHashMap<>();
+        if (sample.length == 0) {
+            return result;
+        }
+        for (double percentile : percentiles) {
+            int index = (int) Math.ceil(percentile * sample.length) - 1;
+            result.put(percentile, millis(sample[Math.max(0, Math.min(index, sample.length - 1))]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of failed rewards by the simple name of the
+     * exception they failed with.
+     */
+    public Map<String, Long> getErrors() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((error, count) -> result.put(error, count.sum()));
+        return result;
+    }
+
+    /**
+     * Returns the slowest of the last rewards, slowest first.
+     */
+    public List<Reward> getSlowestRewards(int count) {
+        List<Reward> rewards = new ArrayList<>(recentRewards.length());
+        for (int i = 0; i < recentRewards.length(); i++) {
+            Reward reward = recentRewards.get(i);
+            if (reward != null) {
+                rewards.add(reward);
+            }
+        }
+        rewards.sort(Comparator.comparingLong(Reward::getNanos).reversed());
+        return rewards.subList(0, Math.min(count, rewards.size()));
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * A reward as recorded, the dining with the time it took.
+     */
+    public static class Reward {
+
+        private final Dining dining;
+
+        private final long nanos;
+
+        private final Instant finished;
+
+        private final String error;
+
+        Reward(Dining dining, long nanos, Instant finished, String error) {
+            this.dining = dining;
+            this.nanos = nanos;
+            this.finished = finished;
+            this.error = error;
+        }
+
+        public Dining getDining() {
+            return dining;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getMillis() {
+            return millis(nanos);
+        }
+
+        public Instant getFinished() {
+            return finished;
+        }
+
+        /**
+         * Returns the simple name of the exception the reward failed with,
+         * null if it succeeded.
+         */
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package accounts.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import rewards.RewardNetwork;
+import rewards.submission.AsyncRewardNetwork;
+import rewards.submission.RewardSubmissionQueue;
+
+import javax.sql.DataSource;
+
+/**
+ * Rewards dinings posted to <code>/rewards</code> in the background, on
+ * <code>rewards.submission.workers</code> worker threads.
+ */
+@Configuration
+public class RewardSubmissionConfiguration {
+
+    @Bean
+    public RewardSubmissionQueue rewardSubmissionQueue(DataSource dataSource,
+            @Value("${rewards.submission.lease-time:300000}") long leaseTime) {
+        RewardSubmissionQueue rewardSubmissionQueue = new RewardSubmissionQueue(dataSource);
+        rewardSubmissionQueue.setLeaseTime(leaseTime);
+        return rewardSubmissionQueue;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public AsyncRewardNetwork asyncRewardNetwork(RewardNetwork rewardNetwork,
+            RewardSubmissionQueue rewardSubmissionQueue, PlatformTransactionManager transactionManager,
+            @Value("${rewards.submission.workers:4}") int workers,
+            @Value("${rewards.submission.max-attempts:3}") int maxAttempts) {
+        AsyncRewardNetwork asyncRewardNetwork = new AsyncRewardNetwork(rewardNetwork, rewardSubmissionQueue,
+                transactionManager);
+        asyncRewardNetwork.setWorkers(workers);
+        asyncRewardNetwork.setMaxAttempts(maxAttempts);
+        return asyncRewardNetwork;
+    }
+}
@@ -0,0 +1,96 @@
+package accounts.web;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import rewards.Dining;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How the reward network is performing, <code>/actuator/rewards</code>: the
+ * rewards per second over the last 1, 5 and 15 minutes, the latency
+ * percentiles and the slowest of the last rewards, the rewards in flight and
+ * the failures by exception. Read from {@link RewardStatistics}, so reading
+ * never holds up a reward.
+ */
+@Component
+@Endpoint(id = "rewards")
+public class RewardsEndpoint {
+
+    private static final int[] MINUTES = { 1, 5, 15 };
+
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 1.0 };
+
+    private static final int SLOWEST = 10;
+
+    private final RewardStatistics statistics;
+
+    public RewardsEndpoint(RewardStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rewards() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", statistics.getInFlight());
+        result.put("throughput", throughput());
+        result.put("latency", latency());
+        result.put("errors", statistics.getErrors());
+        result.put("slowest", slowest());
+        return result;
+    }
+
+    private Map<String, Object> throughput() {
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        for (int minutes : MINUTES) {
+            long count = statistics.getRewardCount(minutes);
+            Map<String, Object> window = new LinkedHashMap<>();
+            window.put("count", count);
+            window.put("perSecond", (double) count / (minutes * 60));
+            throughput.put(minutes + "m", window);
+        }
+        return throughput;
+    }
+
+    /**
+     * Returns the latency percentiles in milliseconds, p100 being the
+     * maximum.
+     */
+    private Map<String, Double> latency() {
+        Map<String, Double> latency = new LinkedHashMap<>();
+        statistics.getLatencyPercentiles(PERCENTILES).forEach((percentile, millis) ->
+                latency.put(percentile == 1.0 ? "max" : "p" + Math.round(percentile * 100), millis));
+        return latency;
+    }
+
+    private List<Map<String, Object>> slowest() {
+        List<Map<String, Object>> slowest = new ArrayList<>();
+        for (RewardStatistics.Reward reward : statistics.getSlowestRewards(SLOWEST)) {
+            Dining dining = reward.getDining();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("millis", reward.getMillis());
+            entry.put("finished", reward.getFinished().toString());
+            entry.put("amount", dining.getAmount().toString());
+            entry.put("creditCard", masked(dining.getCreditCardNumber()));
+            entry.put("merchantNumber", dining.getMerchantNumber());
+            if (reward.getError() != null) {
+                entry.put("error", reward.getError());
+            }
+            slowest.add(entry);
+        }
+        return slowest;
+    }
+
+    /**
+     * Returns the last four digits of a credit card number only.
+     */
+    private static String masked(String creditCardNumber) {
+        int shown = Math.min(4, creditCardNumber.length());
+        return "*".repeat(creditCardNumber.length() - shown)
+                + creditCardNumber.substring(creditCardNumber.length() - shown);
+    }
+}
@@ -0,0 +1,65 @@
+package accounts.web;
+
+import config.DbConfig;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The hits and misses of every region of the Hibernate second-level cache,
+ * e.g. <code>/actuator/jpacache</code>, or
+ * <code>/actuator/jpacache/rewards.account</code> for one region. Only there
+ * with the second-level cache enabled by the "jpa-cache" profile.
+ */
+@Component
+@Profile(DbConfig.CACHE_PROFILE)
+@Endpoint(id = "jpacache")
+public class SecondLevelCacheEndpoint {
+
+    private final Statistics statistics;
+
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> regions() {
+        Map<String, Map<String, Object>> regions = new LinkedHashMap<>();
+        for (String region : new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()))) {
+            regions.put(region, region(region));
+        }
+        return regions;
+    }
+
+    /**
+     * Returns the statistics of one region, or null - 404 Not Found - if
+     * there is no such region.
+     */
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        // Asking for the statistics of an unknown region would create it
+        if (!Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(region)) {
+            return null;
+        }
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("puts", regionStatistics.getPutCount());
+        result.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return result;
+    }
+}
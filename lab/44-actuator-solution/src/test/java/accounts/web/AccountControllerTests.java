@@ -1,14 +1,21 @@
 package accounts.web;
 
 import accounts.internal.StubAccountManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import rewards.internal.account.Account;
 import rewards.internal.account.Beneficiary;
 
@@ -35,25 +42,72 @@ public class AccountControllerTests {
 		counter = mock(Counter.class);
 		doReturn(counter).when(registry).counter(any(String.class), any(String.class), any(String.class));
 
-		controller = new AccountController(new StubAccountManager(), registry);
+		controller = new AccountController(new StubAccountManager(), registry, new ObjectMapper());
 	}
 
 	@Test
 	public void testHandleDetailsRequest() {
-		Account account = controller.accountDetails(0);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Account account = controller.accountDetails(0, getRequest("/accounts/0", null, response));
 		assertNotNull(account);
 		assertEquals(Long.valueOf(0), account.getEntityId());
+		assertNotNull(response.getHeader(HttpHeaders.ETAG));
 
 		verify(registry).counter("account.fetch", "type", "fromCode");
 		verify(counter).increment();
 	}
 
 	@Test
-	public void testHandleSummaryRequest() {
-		List<Account> accounts = controller.accountSummary();
-		assertNotNull(accounts);
+	public void testHandleConditionalDetailsRequest() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.accountDetails(0, getRequest("/accounts/0", null, response));
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+
+		response = new MockHttpServletResponse();
+		assertNull(controller.accountDetails(0, getRequest("/accounts/0", eTag, response)));
+		assertEquals(304, response.getStatus());
+
+		setupFakeRequest("http://localhost/accounts/0/beneficiaries");
+		controller.addBeneficiary(0L, "Test2");
+		response = new MockHttpServletResponse();
+		assertNotNull(controller.accountDetails(0, getRequest("/accounts/0", eTag, response)));
+		assertEquals(200, response.getStatus());
+		assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	public void testHandleDetailsRequestFail() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			controller.accountDetails(9999, getRequest("/accounts/9999", null, new MockHttpServletResponse()));
+		});
+	}
+
+	@Test
+	public void testHandleSummaryRequest() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.accountSummary(response);
+		assertEquals("application/json", response.getContentType());
+		JsonNode accounts = new ObjectMapper().readTree(response.getContentAsByteArray());
+		assertTrue(accounts.isArray());
 		assertEquals(1, accounts.size());
-		assertEquals(Long.valueOf(0), accounts.get(0).getEntityId());
+		assertEquals(0, accounts.get(0).get("entityId").asLong());
+		assertEquals(2, accounts.get(0).get("beneficiaries").size());
+	}
+
+	@Test
+	public void testHandlePageRequest() {
+		setupFakeRequest("http://localhost/accounts?limit=1");
+		ResponseEntity<List<Account>> firstPage = controller.accountPage(null, 1);
+		assertEquals(1, firstPage.getBody().size());
+		assertEquals(Long.valueOf(0), firstPage.getBody().get(0).getEntityId());
+		assertEquals("<http://localhost/accounts?after=0&limit=1>; rel=\"next\"",
+				firstPage.getHeaders().getFirst(HttpHeaders.LINK));
+
+		ResponseEntity<List<Account>> nextPage = controller.accountPage(0L, 1);
+		assertTrue(nextPage.getBody().isEmpty());
+		assertNull(nextPage.getHeaders().getFirst(HttpHeaders.LINK));
+
+		assertEquals(400, controller.accountPage(null, 0).getStatusCodeValue());
 	}
 
 	@Test
@@ -74,9 +128,17 @@ public class AccountControllerTests {
 
 	@Test
 	public void testGetBeneficiary() {
-		Beneficiary beneficiary = controller.getBeneficiary(0, "Corgan");
+		String url = "/accounts/0/beneficiaries/Corgan";
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Beneficiary beneficiary = controller.getBeneficiary(0, "Corgan", getRequest(url, null, response));
 		assertNotNull(beneficiary);
 		assertEquals(Long.valueOf(1), beneficiary.getEntityId());
+
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+		assertNotNull(eTag);
+		response = new MockHttpServletResponse();
+		assertNull(controller.getBeneficiary(0, "Corgan", getRequest(url, eTag, response)));
+		assertEquals(304, response.getStatus());
 	}
 
 	@Test
@@ -104,6 +166,24 @@ public class AccountControllerTests {
 		});
 	}
 
+	/**
+	 * Creates a GET request, as Spring MVC passes it to a handler method.
+	 *
+	 * @param requestURI
+	 *            The path requested.
+	 * @param ifNoneMatch
+	 *            The ETag of the If-None-Match header, or null for none.
+	 * @param response
+	 *            The response the request is answered with.
+	 */
+	private WebRequest getRequest(String requestURI, String ifNoneMatch, MockHttpServletResponse response) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", requestURI);
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		return new ServletWebRequest(request, response);
+	}
+
 	/**
 	 * Add a mocked up HttpServletRequest to Spring's internal request-context
 	 * holder. Normally the DispatcherServlet does this, but we must do it
@@ -118,7 +198,12 @@ public class AccountControllerTests {
 		// We can use Spring's convenient mock implementation. Defaults to
 		// localhost in the URL. Since we only need the URL, we don't need
 		// to setup anything else in the request.
-		MockHttpServletRequest request = new MockHttpServletRequest("POST", requestURI);
+		int query = requestURI.indexOf('?');
+		MockHttpServletRequest request = new MockHttpServletRequest("POST",
+				query < 0 ? requestURI : requestURI.substring(0, query));
+		if (query >= 0) {
+			request.setQueryString(requestURI.substring(query + 1));
+		}
 
 		// Puts the fake request in the current thread for the
 		// ServletUriComponentsBuilder to initialize itself from later.
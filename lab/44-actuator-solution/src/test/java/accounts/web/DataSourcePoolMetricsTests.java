@@ -0,0 +1,50 @@
+package accounts.web;
+
+import accounts.AccountManager;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.wavefront.WavefrontMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@EnableAutoConfiguration(exclude = {WavefrontMetricsExportAutoConfiguration.class})
+public class DataSourcePoolMetricsTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AccountManager accountManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    public void data_source_is_a_sized_pool_with_leak_detection() {
+        assertThat(dataSource).isInstanceOf(HikariDataSource.class);
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        assertThat(pool.getPoolName()).isEqualTo("rewards");
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(pool.getLeakDetectionThreshold()).isEqualTo(10000);
+    }
+
+    @Test
+    public void pool_metrics_are_published() {
+        accountManager.getAccount(0L);
+
+        assertThat(registry.get("hikaricp.connections.active").tag("pool", "rewards").gauge()).isNotNull();
+        assertThat(registry.get("hikaricp.connections.idle").tag("pool", "rewards").gauge()).isNotNull();
+        assertThat(registry.get("hikaricp.connections.pending").tag("pool", "rewards").gauge()).isNotNull();
+        Timer acquire = registry.get("hikaricp.connections.acquire").tag("pool", "rewards").timer();
+        assertThat(acquire.count()).isGreaterThan(0);
+        assertThat(acquire.takeSnapshot().percentileValues()).hasSize(2);
+    }
+}
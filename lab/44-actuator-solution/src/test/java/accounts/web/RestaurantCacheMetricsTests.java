@@ -0,0 +1,42 @@
+package accounts.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rewards.internal.restaurant.CachingRestaurantRepository;
+import rewards.internal.restaurant.StubRestaurantRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A JUnit test case testing the meters published for the restaurant cache.
+ */
+public class RestaurantCacheMetricsTests {
+
+    private CachingRestaurantRepository cache;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new CachingRestaurantRepository(new StubRestaurantRepository());
+        registry = new SimpleMeterRegistry();
+        new RestaurantCacheMetrics(cache, "restaurants", Tags.empty()).bindTo(registry);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        cache.findByMerchantNumber("1234567890");
+        cache.findByMerchantNumber("1234567890");
+        cache.findByMerchantNumber("1234567890");
+
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", "restaurants", "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "restaurants", "result", "miss")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.puts").tags("cache", "restaurants").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.size").tags("cache", "restaurants").gauge().value());
+        assertEquals(0.0, registry.get("cache.evictions").tags("cache", "restaurants").functionCounter().count());
+    }
+}
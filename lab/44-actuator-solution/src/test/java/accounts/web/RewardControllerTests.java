@@ -0,0 +1,81 @@
+package accounts.web;
+
+import common.datetime.SimpleDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import rewards.Dining;
+import rewards.submission.AsyncRewardNetwork;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * A JUnit test case testing the RewardController.
+ */
+public class RewardControllerTests {
+
+	private RewardController controller;
+	private AsyncRewardNetwork asyncRewardNetwork;
+
+	@BeforeEach
+	public void setUp() {
+		asyncRewardNetwork = mock(AsyncRewardNetwork.class);
+		controller = new RewardController(asyncRewardNetwork);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/rewards");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	@Test
+	public void testSubmitDining() {
+		doReturn("ticket-1").when(asyncRewardNetwork).submit(any(Dining.class));
+
+		ResponseEntity<Map<String, String>> response = controller
+				.submitDining(diningRequest("100.00", "1234123412341234", "1234567890"));
+		assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+		assertEquals("http://localhost/rewards/ticket-1", response.getHeaders().getLocation().toString());
+		assertEquals("ticket-1", response.getBody().get("ticket"));
+
+		ArgumentCaptor<Dining> dining = ArgumentCaptor.forClass(Dining.class);
+		verify(asyncRewardNetwork).submit(dining.capture());
+		assertEquals("1234123412341234", dining.getValue().getCreditCardNumber());
+		assertEquals("1234567890", dining.getValue().getMerchantNumber());
+		assertEquals(new SimpleDate(5, 1, 2024), dining.getValue().getDate());
+	}
+
+	@Test
+	public void testSubmitInvalidDining() {
+		assertEquals(HttpStatus.BAD_REQUEST,
+				controller.submitDining(diningRequest(null, "1234123412341234", "1234567890")).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST,
+				controller.submitDining(diningRequest("-1.00", "1234123412341234", "1234567890")).getStatusCode());
+		assertEquals(HttpStatus.BAD_REQUEST,
+				controller.submitDining(diningRequest("100.00", "1234", "1234567890")).getStatusCode());
+		verify(asyncRewardNetwork, never()).submit(any(Dining.class));
+	}
+
+	@Test
+	public void testUnknownSubmission() {
+		assertEquals(HttpStatus.NOT_FOUND, controller.submission("bogus").getStatusCode());
+	}
+
+	private RewardController.DiningRequest diningRequest(String amount, String creditCardNumber,
+			String merchantNumber) {
+		RewardController.DiningRequest request = new RewardController.DiningRequest();
+		request.setAmount(amount == null ? null : new BigDecimal(amount));
+		request.setCreditCardNumber(creditCardNumber);
+		request.setMerchantNumber(merchantNumber);
+		request.setDate(LocalDate.of(2024, 5, 1));
+		return request;
+	}
+}
@@ -0,0 +1,122 @@
+package accounts.web;
+
+import common.money.MonetaryAmount;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.wavefront.WavefrontMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+import rewards.internal.RewardNetworkImpl;
+import rewards.internal.restaurant.RestaurantRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Rewards dinings through the application's reward network, rolling back
+ * after every test, and checks the reward meters.
+ */
+@SpringBootTest
+@EnableAutoConfiguration(exclude = {WavefrontMetricsExportAutoConfiguration.class})
+@Transactional
+public class RewardMetricsTests {
+
+    private static final String[] STAGES = { "findByCreditCard", "findByMerchantNumber", "updateBeneficiaries",
+            "confirmReward" };
+
+    @Autowired
+    private RewardNetwork rewardNetwork;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private RewardStatistics rewardStatistics;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.update("insert into T_RESTAURANT (MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, "
+                + "BENEFIT_AVAILABILITY_POLICY) values ('1234567899', 'Metered Bistro', .08, 'A')");
+    }
+
+    @Test
+    public void reward_network_is_metered_outside_its_transaction() throws Exception {
+        Object transactional = ((Advised) rewardNetwork).getTargetSource().getTarget();
+
+        assertThat(AopUtils.isAopProxy(transactional)).isTrue();
+        assertThat(AopTestUtils.<Object>getUltimateTargetObject(rewardNetwork)).isInstanceOf(RewardNetworkImpl.class);
+    }
+
+    @Test
+    public void stages_are_only_timed_while_rewarding() {
+        long before = stage("findByMerchantNumber").count();
+
+        restaurantRepository.findByMerchantNumber("1234567899");
+
+        assertThat(stage("findByMerchantNumber").count()).isEqualTo(before);
+    }
+
+    @Test
+    public void every_stage_of_a_reward_is_timed() {
+        long[] before = new long[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            before[i] = stage(STAGES[i]).count();
+        }
+        long rewardsBefore = reward("success", "none").count();
+        DistributionSummary statements = registry.get(RewardMeters.STATEMENTS_SUMMARY).summary();
+        long statementsBefore = statements.count();
+        double statementsTotalBefore = statements.totalAmount();
+        long recordedBefore = rewardStatistics.getRewardCount(15);
+
+        RewardConfirmation confirmation = rewardNetwork.rewardAccountFor(
+                Dining.createDining("100.00", "1234123412341234", "1234567899"));
+
+        assertThat(confirmation.getAccountContribution().getAmount()).isEqualTo(MonetaryAmount.valueOf("8.00"));
+        for (int i = 0; i < STAGES.length; i++) {
+            assertThat(stage(STAGES[i]).count()).as(STAGES[i]).isEqualTo(before[i] + 1);
+        }
+        assertThat(stage("findByCreditCard").takeSnapshot().percentileValues()).hasSize(2);
+        assertThat(reward("success", "none").count()).isEqualTo(rewardsBefore + 1);
+        assertThat(statements.count()).isEqualTo(statementsBefore + 1);
+        // the account and restaurant queries, the account and beneficiary
+        // updates and the reward insert, at the least
+        assertThat(statements.totalAmount() - statementsTotalBefore).isGreaterThanOrEqualTo(5);
+        assertThat(rewardStatistics.getRewardCount(15)).isEqualTo(recordedBefore + 1);
+        assertThat(rewardStatistics.getInFlight()).isZero();
+    }
+
+    @Test
+    public void failed_rewards_are_tagged_with_the_exception() {
+        Dining dining = Dining.createDining("100.00", "1234123412341234", "9999999999");
+
+        assertThatThrownBy(() -> rewardNetwork.rewardAccountFor(dining)).satisfies(e -> assertThat(
+                reward("failure", e.getClass().getSimpleName()).count()).isGreaterThanOrEqualTo(1));
+    }
+
+    private Timer stage(String stage) {
+        return registry.get(RewardMeters.STAGE_TIMER).tag("stage", stage).timer();
+    }
+
+    private Timer reward(String outcome, String exception) {
+        return registry.get(RewardMeters.REWARD_TIMER).tags("outcome", outcome, "exception", exception)
+                .timer();
+    }
+}
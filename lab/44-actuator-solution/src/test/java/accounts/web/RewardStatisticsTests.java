@@ -0,0 +1,150 @@
+package accounts.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rewards.Dining;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A JUnit test case testing the ring buffers of the reward statistics.
+ */
+public class RewardStatisticsTests {
+
+    private final Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+
+    private MutableClock clock;
+
+    private RewardStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(Instant.parse("2022-11-01T12:00:00Z"));
+        statistics = new RewardStatistics(clock, 4, 3);
+    }
+
+    @Test
+    public void testThroughputWindows() {
+        reward(1);
+        clock.advance(Duration.ofMinutes(2));
+        reward(1);
+        reward(1);
+        clock.advance(Duration.ofMinutes(6));
+        reward(1);
+
+        assertThat(statistics.getRewardCount(1)).isEqualTo(1);
+        assertThat(statistics.getRewardCount(5)).isEqualTo(1);
+        assertThat(statistics.getRewardCount(15)).isEqualTo(4);
+
+        clock.advance(Duration.ofMinutes(15));
+        assertThat(statistics.getRewardCount(15)).isEqualTo(0);
+    }
+
+    @Test
+    public void testSecondsAreReusedAfterFifteenMinutes() {
+        reward(1);
+        clock.advance(Duration.ofMinutes(15));
+        reward(1);
+
+        assertThat(statistics.getRewardCount(15)).isEqualTo(1);
+    }
+
+    @Test
+    public void testInFlight() {
+        statistics.started();
+        statistics.started();
+        assertThat(statistics.getInFlight()).isEqualTo(2);
+
+        statistics.rewarded(dining, 1, null);
+        assertThat(statistics.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLatencyPercentilesOfTheLastRewards() {
+        assertThat(statistics.getLatencyPercentiles(0.5)).isEmpty();
+
+        for (int millis = 1; millis <= 6; millis++) {
+            reward(millis);
+        }
+
+        // only the last 4 latencies are kept: 3, 4, 5 and 6 ms
+        Map<Double, Double> percentiles = statistics.getLatencyPercentiles(0.5, 1.0);
+        assertThat(percentiles.get(0.5)).isEqualTo(4.0);
+        assertThat(percentiles.get(1.0)).isEqualTo(6.0);
+    }
+
+    @Test
+    public void testErrorsByException() {
+        statistics.started();
+        statistics.rewarded(dining, 1, new IllegalStateException());
+        statistics.started();
+        statistics.rewarded(dining, 1, new IllegalStateException());
+        statistics.started();
+        statistics.rewarded(dining, 1, new IllegalArgumentException());
+
+        assertThat(statistics.getErrors()).containsEntry("IllegalStateException", 2L)
+                .containsEntry("IllegalArgumentException", 1L).hasSize(2);
+    }
+
+    @Test
+    public void testSlowestOfTheLastRewards() {
+        reward(9);
+        reward(2);
+        reward(7);
+        reward(5);
+
+        // the 9 ms reward is no longer among the last 3
+        List<RewardStatistics.Reward> slowest = statistics.getSlowestRewards(2);
+        assertThat(slowest).extracting(RewardStatistics.Reward::getMillis).containsExactly(7.0, 5.0);
+        assertThat(slowest.get(0).getDining()).isEqualTo(dining);
+        assertThat(slowest.get(0).getFinished()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    public void testInvalidWindow() {
+        assertThatThrownBy(() -> statistics.getRewardCount(16)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void reward(long millis) {
+        statistics.started();
+        statistics.rewarded(dining, TimeUnit.MILLISECONDS.toNanos(millis), null);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
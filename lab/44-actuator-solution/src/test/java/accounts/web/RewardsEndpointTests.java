@@ -0,0 +1,53 @@
+package accounts.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rewards.Dining;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A JUnit test case testing what the "rewards" endpoint reports.
+ */
+public class RewardsEndpointTests {
+
+    private RewardStatistics statistics;
+
+    private RewardsEndpoint endpoint;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = new RewardStatistics();
+        endpoint = new RewardsEndpoint(statistics);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRewards() {
+        Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+        statistics.started();
+        statistics.rewarded(dining, TimeUnit.MILLISECONDS.toNanos(30), null);
+        statistics.started();
+        statistics.rewarded(dining, TimeUnit.MILLISECONDS.toNanos(10), new IllegalStateException());
+        statistics.started();
+
+        Map<String, Object> rewards = endpoint.rewards();
+
+        assertThat(rewards).containsEntry("inFlight", 1L);
+        Map<String, Map<String, Object>> throughput = (Map<String, Map<String, Object>>) rewards.get("throughput");
+        assertThat(throughput).containsOnlyKeys("1m", "5m", "15m");
+        assertThat(throughput.get("1m")).containsEntry("count", 2L).containsEntry("perSecond", 2.0 / 60);
+        assertThat((Map<String, Double>) rewards.get("latency")).containsOnlyKeys("p50", "p90", "p99", "max")
+                .containsEntry("max", 30.0);
+        assertThat((Map<String, Long>) rewards.get("errors")).containsEntry("IllegalStateException", 1L);
+        List<Map<String, Object>> slowest = (List<Map<String, Object>>) rewards.get("slowest");
+        assertThat(slowest).hasSize(2);
+        assertThat(slowest.get(0)).containsEntry("millis", 30.0).containsEntry("creditCard", "************1234")
+                .containsEntry("merchantNumber", "1234567890").doesNotContainKey("error");
+        assertThat(slowest.get(1)).containsEntry("error", "IllegalStateException");
+    }
+}
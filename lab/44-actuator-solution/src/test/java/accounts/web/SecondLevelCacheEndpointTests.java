@@ -0,0 +1,43 @@
+package accounts.web;
+
+import accounts.AccountManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.wavefront.WavefrontMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("jpa-cache")
+@EnableAutoConfiguration(exclude = {WavefrontMetricsExportAutoConfiguration.class})
+public class SecondLevelCacheEndpointTests {
+
+    @Autowired
+    private AccountManager accountManager;
+
+    @Autowired
+    private SecondLevelCacheEndpoint endpoint;
+
+    @Test
+    public void accounts_are_read_from_the_second_level_cache() {
+        accountManager.getAccount(1L);
+        accountManager.getAccount(1L);
+
+        Map<String, Object> account = endpoint.region("rewards.account");
+        assertThat((Long) account.get("misses")).isGreaterThanOrEqualTo(1);
+        assertThat((Long) account.get("hits")).isGreaterThanOrEqualTo(1);
+        assertThat(endpoint.regions()).containsKeys("rewards.account", "rewards.account.beneficiaries",
+                "rewards.beneficiary", "rewards.restaurant");
+    }
+
+    @Test
+    public void unknown_region_is_not_found() {
+        assertThat(endpoint.region("unknown")).isNull();
+    }
+
+}
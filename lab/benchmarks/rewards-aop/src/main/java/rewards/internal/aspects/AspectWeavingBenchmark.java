@@ -0,0 +1,148 @@
+package rewards.internal.aspects;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.aspectj.lang.Aspects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import config.AspectsConfig;
+import config.RewardsConfig;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.restaurant.Restaurant;
+import rewards.internal.restaurant.RestaurantRepository;
+
+/**
+ * The cost of the aspects of AspectsConfig as built: run it once from a plain build, where Spring proxies the
+ * repositories, and once from a build with the "ajc" profile, where the aspects are woven into them. Measures calls
+ * to repositories that do nothing themselves, with logging off, and the startup of the rewards application context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AspectWeavingBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(AspectWeavingBenchmark.class);
+
+	private ch.qos.logback.classic.Logger aspectLogger = (ch.qos.logback.classic.Logger) LoggerFactory
+			.getLogger(LoggingAspect.class);
+
+	private ch.qos.logback.classic.Level level;
+
+	private AnnotationConfigApplicationContext context;
+
+	private Account account = new Account("123456789", "Keith and Keri Donald");
+
+	private AccountRepository accountRepository;
+
+	private RestaurantRepository restaurantRepository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// tells the runs apart in the output, as the benchmarks of both builds are named the same
+		logger.info("Aspects woven: {}", Aspects.hasAspect(LoggingAspect.class));
+		level = aspectLogger.getLevel();
+		aspectLogger.setLevel(ch.qos.logback.classic.Level.WARN);
+		context = new AnnotationConfigApplicationContext(NoOpRepositoriesConfig.class);
+		accountRepository = context.getBean(AccountRepository.class);
+		restaurantRepository = context.getBean(RestaurantRepository.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		aspectLogger.setLevel(level);
+	}
+
+	@Benchmark
+	public Restaurant findByMerchantNumber() {
+		return restaurantRepository.findByMerchantNumber("1234567890");
+	}
+
+	@Benchmark
+	public Account updateBeneficiaries() {
+		accountRepository.updateBeneficiaries(account);
+		return account;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 50)
+	public AnnotationConfigApplicationContext startup() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(RewardsContextConfig.class);
+		context.close();
+		return context;
+	}
+
+	@Configuration
+	@Import(AspectsConfig.class)
+	static class NoOpRepositoriesConfig {
+
+		@Bean
+		public AccountRepository accountRepository() {
+			return new NoOpAccountRepository();
+		}
+
+		@Bean
+		public RestaurantRepository restaurantRepository() {
+			return new NoOpRestaurantRepository();
+		}
+	}
+
+	/**
+	 * The rewards application, with a data source that is never connected to.
+	 */
+	@Configuration
+	@Import({ RewardsConfig.class, AspectsConfig.class })
+	static class RewardsContextConfig {
+
+		@Bean
+		public DataSource dataSource() {
+			return new DriverManagerDataSource("jdbc:hsqldb:mem:unused");
+		}
+	}
+
+	private static class NoOpAccountRepository implements AccountRepository {
+
+		public Account findByCreditCard(String creditCardNumber) {
+			return null;
+		}
+
+		public void updateBeneficiaries(Account account) {
+		}
+	}
+
+	private static class NoOpRestaurantRepository implements RestaurantRepository {
+
+		private Restaurant restaurant = new Restaurant("1234567890", "Apple Bees");
+
+		public Restaurant findByMerchantNumber(String merchantNumber) {
+			return restaurant;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package rewards.internal.aspects;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import rewards.internal.account.Account;
+import rewards.internal.account.AccountRepository;
+import rewards.internal.monitor.hdr.HdrHistogramMonitorFactory;
+import rewards.internal.restaurant.Restaurant;
+import rewards.internal.restaurant.RestaurantRepository;
+
+/**
+ * The overhead of the LoggingAspect on repository calls that do nothing themselves: the @Before logging of find*()
+ * and the @Around monitoring of update*(). Compares calling the repository directly, through a Spring AOP proxy
+ * without advice, and through a proxy with the aspect: with logging off, with 1 in 100 calls logged and with every
+ * call logged. Logged calls are formatted but written nowhere.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAspectBenchmark {
+
+	@Param({ "target", "proxy", "aspect", "sampled", "logged" })
+	private String mode;
+
+	private Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+
+	private OutputStreamAppender<ILoggingEvent> appender;
+
+	private Account account = new Account("123456789", "Keith and Keri Donald");
+
+	private AccountRepository accountRepository;
+
+	private RestaurantRepository restaurantRepository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		LoggingAspect aspect = new LoggingAspect(new HdrHistogramMonitorFactory());
+		aspect.setLogSampleRate("sampled".equals(mode) ? 100 : 1);
+		configureLogger();
+		accountRepository = proxy(new NoOpAccountRepository(account), aspect);
+		restaurantRepository = proxy(new NoOpRestaurantRepository(), aspect);
+	}
+
+	/**
+	 * Logs to an appender that formats every event like the console does and discards it.
+	 */
+	private void configureLogger() {
+		LoggerContext context = logger.getLoggerContext();
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern("%-5level %d{HH:mm:ss.SSS} [%thread] %logger - %msg%n");
+		encoder.start();
+		appender = new OutputStreamAppender<ILoggingEvent>();
+		appender.setContext(context);
+		appender.setEncoder(encoder);
+		appender.setOutputStream(OutputStream.nullOutputStream());
+		appender.start();
+		logger.addAppender(appender);
+		logger.setAdditive(false);
+		logger.setLevel("aspect".equals(mode) ? ch.qos.logback.classic.Level.WARN : ch.qos.logback.classic.Level.INFO);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T proxy(T target, LoggingAspect aspect) {
+		if ("target".equals(mode)) {
+			return target;
+		}
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+		if (!"proxy".equals(mode)) {
+			proxyFactory.addAspect(aspect);
+		}
+		return (T) proxyFactory.getProxy();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		logger.detachAppender(appender);
+		appender.stop();
+	}
+
+	@Benchmark
+	public Restaurant findByMerchantNumber() {
+		return restaurantRepository.findByMerchantNumber("1234567890");
+	}
+
+	@Benchmark
+	public Account updateBeneficiaries() {
+		accountRepository.updateBeneficiaries(account);
+		return account;
+	}
+
+	private static class NoOpAccountRepository implements AccountRepository {
+
+		private Account account;
+
+		NoOpAccountRepository(Account account) {
+			this.account = account;
+		}
+
+		public Account findByCreditCard(String creditCardNumber) {
+			return account;
+		}
+
+		public void updateBeneficiaries(Account account) {
+		}
+	}
+
+	private static class NoOpRestaurantRepository implements RestaurantRepository {
+
+		private Restaurant restaurant = new Restaurant("1234567890", "Apple Bees");
+
+		public Restaurant findByMerchantNumber(String merchantNumber) {
+			return restaurant;
+		}
+	}
+}
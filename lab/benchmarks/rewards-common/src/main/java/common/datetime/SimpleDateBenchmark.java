@@ -0,0 +1,69 @@
+package common.datetime;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The date handling of one reward - taking today's date, converting the dining's time to a date, checking it against
+ * an interval and binding both dates as SQL dates - done with SimpleDate and, as the baseline, with the trimmed
+ * GregorianCalendar SimpleDate used to wrap. Run with <code>-prof gc</code> and compare
+ * <code>gc.alloc.rate.norm</code>, the bytes allocated per reward.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleDateBenchmark {
+
+	private long diningTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(30);
+
+	private DateInterval interval = new DateInterval(SimpleDate.valueOf(diningTime - TimeUnit.DAYS.toMillis(7)),
+			SimpleDate.today());
+
+	private GregorianCalendar intervalStart = trimToDays(diningTime - TimeUnit.DAYS.toMillis(7));
+
+	private GregorianCalendar intervalEnd = trimToDays(System.currentTimeMillis());
+
+	@Benchmark
+	public void simpleDate(Blackhole blackhole) {
+		SimpleDate today = SimpleDate.today();
+		SimpleDate diningDate = SimpleDate.valueOf(diningTime);
+		blackhole.consume(interval.contains(diningDate));
+		blackhole.consume(today.asSqlDate());
+		blackhole.consume(diningDate.asSqlDate());
+	}
+
+	@Benchmark
+	public void gregorianCalendar(Blackhole blackhole) {
+		GregorianCalendar today = trimToDays(System.currentTimeMillis());
+		GregorianCalendar diningDate = trimToDays(diningTime);
+		blackhole.consume(intervalStart.compareTo(diningDate) <= 0 && diningDate.compareTo(intervalEnd) <= 0);
+		blackhole.consume(new java.sql.Date(today.getTimeInMillis()));
+		blackhole.consume(new java.sql.Date(diningDate.getTimeInMillis()));
+	}
+
+	private static GregorianCalendar trimToDays(long time) {
+		GregorianCalendar cal = new GregorianCalendar();
+		cal.setTimeInMillis(time);
+		cal.set(Calendar.HOUR_OF_DAY, 0);
+		cal.set(Calendar.MINUTE, 0);
+		cal.set(Calendar.SECOND, 0);
+		cal.set(Calendar.MILLISECOND, 0);
+		return cal;
+	}
+
+}
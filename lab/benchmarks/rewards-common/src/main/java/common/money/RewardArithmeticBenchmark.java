@@ -0,0 +1,65 @@
+package common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The money arithmetic of one reward - the restaurant's benefit of a dining, distributed to two beneficiaries and
+ * credited to their savings - done with MonetaryAmount and, as the baseline, with the BigDecimal operations
+ * MonetaryAmount used to do. Run with <code>-prof gc</code> and compare <code>gc.alloc.rate.norm</code>, the bytes
+ * allocated per reward.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RewardArithmeticBenchmark {
+
+	private MonetaryAmount diningAmount = MonetaryAmount.valueOf("100.00");
+
+	private Percentage benefitPercentage = Percentage.valueOf("8%");
+
+	private Percentage allocationPercentage = Percentage.valueOf("50%");
+
+	private MonetaryAmount savings = MonetaryAmount.valueOf("1234.56");
+
+	private BigDecimal diningValue = diningAmount.asBigDecimal();
+
+	private BigDecimal benefitValue = benefitPercentage.asBigDecimal();
+
+	private BigDecimal allocationValue = allocationPercentage.asBigDecimal();
+
+	private BigDecimal savingsValue = savings.asBigDecimal();
+
+	@Benchmark
+	public void monetaryAmount(Blackhole blackhole) {
+		MonetaryAmount benefit = diningAmount.multiplyBy(benefitPercentage);
+		for (int beneficiary = 0; beneficiary < 2; beneficiary++) {
+			MonetaryAmount distribution = benefit.multiplyBy(allocationPercentage);
+			blackhole.consume(savings.add(distribution));
+		}
+	}
+
+	@Benchmark
+	public void bigDecimal(Blackhole blackhole) {
+		BigDecimal benefit = diningValue.multiply(benefitValue).setScale(2, RoundingMode.HALF_EVEN);
+		for (int beneficiary = 0; beneficiary < 2; beneficiary++) {
+			BigDecimal distribution = benefit.multiply(allocationValue).setScale(2, RoundingMode.HALF_EVEN);
+			blackhole.consume(savingsValue.add(distribution).setScale(2, RoundingMode.HALF_EVEN));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package accounts.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import accounts.AccountManager;
+import config.AppConfig;
+import config.DbConfig;
+import rewards.internal.account.Account;
+
+/**
+ * Loading every account with {@link JpaAccountManager#getAllAccounts()} from a rewards database holding many accounts
+ * with two beneficiaries each. Each invocation is timed on its own, as one request for all accounts would be. See
+ * {@link JoinFetchAccountsBaseline} for the single join fetch it replaced.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class AccountManagerBenchmark {
+
+	private static final int FIRST_ID = 1000;
+
+	@Param({ "10000", "100000", "1000000" })
+	private int accounts;
+
+	private AnnotationConfigApplicationContext context;
+
+	private AccountManager accountManager;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = createContext(accounts);
+		accountManager = context.getBean(AccountManager.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Account> getAllAccounts() {
+		return accountManager.getAllAccounts();
+	}
+
+	/**
+	 * Starts the rewards application on its test database with the given number of accounts added.
+	 */
+	static AnnotationConfigApplicationContext createContext(int accounts) {
+		System.setProperty("spring.jpa.show-sql", "false");
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(DbConfig.class,
+				AppConfig.class);
+		insertAccounts(new JdbcTemplate(context.getBean(DataSource.class)), accounts);
+		return context;
+	}
+
+	private static void insertAccounts(JdbcTemplate jdbcTemplate, int accounts) {
+		int batchSize = 10000;
+		for (int from = 0; from < accounts; from += batchSize) {
+			List<Object[]> accountRows = new ArrayList<Object[]>(batchSize);
+			List<Object[]> beneficiaryRows = new ArrayList<Object[]>(batchSize * 2);
+			for (int i = from; i < Math.min(from + batchSize, accounts); i++) {
+				int id = FIRST_ID + i;
+				accountRows.add(new Object[] { id, String.format("%09d", id), "Account holder " + id });
+				beneficiaryRows.add(new Object[] { id, "Annabelle", "0.50", "0.00" });
+				beneficiaryRows.add(new Object[] { id, "Corgan", "0.50", "0.00" });
+			}
+			jdbcTemplate.batchUpdate("insert into T_ACCOUNT (ID, NUMBER, NAME) values (?, ?, ?)", accountRows);
+			jdbcTemplate.batchUpdate("insert into T_ACCOUNT_BENEFICIARY (ACCOUNT_ID, NAME, ALLOCATION_PERCENTAGE, "
+					+ "SAVINGS) values (?, ?, ?, ?)", beneficiaryRows);
+		}
+	}
+}
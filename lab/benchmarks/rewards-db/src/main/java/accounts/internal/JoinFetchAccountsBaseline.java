@@ -0,0 +1,74 @@
+package accounts.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import rewards.internal.account.Account;
+
+/**
+ * The baseline for {@link AccountManagerBenchmark}: getAllAccounts() as it was, one join fetch of all accounts
+ * de-duplicated with {@link List#contains(Object)}. Quadratic in the number of accounts, so it is only run up to 10k.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class JoinFetchAccountsBaseline {
+
+	@Param({ "1000", "10000" })
+	private int accounts;
+
+	private AnnotationConfigApplicationContext context;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = AccountManagerBenchmark.createContext(accounts);
+		entityManagerFactory = context.getBean(EntityManagerFactory.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<Account> getAllAccounts() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			List<Account> l = entityManager.createQuery("select a from Account a LEFT JOIN FETCH a.beneficiaries")
+					.getResultList();
+			List<Account> result = new ArrayList<Account>();
+			for (Account a : l) {
+				if (!result.contains(a))
+					result.add(a);
+			}
+			return result;
+		} finally {
+			entityManager.close();
+		}
+	}
+}
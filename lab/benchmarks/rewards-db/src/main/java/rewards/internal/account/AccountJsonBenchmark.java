@@ -0,0 +1,65 @@
+package rewards.internal.account;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Writing accounts as JSON with an object mapper built like the one of Spring MVC, as AccountController's
+ * accountDetails (one account) and accountSummary (all accounts of the test data) responses do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountJsonBenchmark {
+
+	private static final int ACCOUNTS = 21;
+
+	private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private Account account;
+
+	private List<Account> accounts = new ArrayList<Account>(ACCOUNTS);
+
+	public AccountJsonBenchmark() {
+		for (int i = 0; i < ACCOUNTS; i++) {
+			Account account = new Account(String.format("%09d", 123456789 + i), "Account holder " + i);
+			account.setEntityId((long) i);
+			account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+			account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+			account.getBeneficiary("Annabelle").credit(MonetaryAmount.valueOf("8.00"));
+			accounts.add(account);
+		}
+		account = accounts.get(0);
+	}
+
+	@Benchmark
+	public byte[] accountDetails() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(account);
+	}
+
+	@Benchmark
+	public byte[] accountSummary() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(accounts);
+	}
+}
@@ -0,0 +1,102 @@
+package rewards.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import rewards.BatchRewardConfirmation;
+import rewards.Dining;
+import rewards.RewardConfirmation;
+import rewards.RewardNetwork;
+
+import config.RewardsConfig;
+
+/**
+ * The whole reward use case, transaction included, against an embedded HSQLDB: one dining at a time and a batch of
+ * dinings. The dinings are $1.00 so the savings stay far below the capacity of the SAVINGS column however long this
+ * runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardNetworkBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	private AnnotationConfigApplicationContext context;
+
+	private RewardNetwork rewardNetwork;
+
+	private Dining dining = Dining.createDining("1.00", "1234123412341234", "1234567890");
+
+	private List<Dining> dinings = new ArrayList<Dining>(BATCH_SIZE);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(BenchmarkConfig.class);
+		rewardNetwork = context.getBean(RewardNetwork.class);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			dinings.add(Dining.createDining("1.00", i % 2 == 0 ? "1234123412341234" : "1234123412340003",
+					"1234567890"));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public RewardConfirmation rewardAccountFor() {
+		return rewardNetwork.rewardAccountFor(dining);
+	}
+
+	@Benchmark
+	public BatchRewardConfirmation rewardAccountsFor() {
+		return rewardNetwork.rewardAccountsFor(dinings);
+	}
+
+	@Configuration
+	@Import(RewardsConfig.class)
+	static class BenchmarkConfig {
+
+		@Bean(destroyMethod = "shutdown")
+		public DataSource dataSource() {
+			return new EmbeddedDatabaseBuilder()
+				.generateUniqueName(true)
+				.addScript("/rewards/testdb/schema.sql")
+				.addScript("/rewards/testdb/data.sql")
+				.build();
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+}
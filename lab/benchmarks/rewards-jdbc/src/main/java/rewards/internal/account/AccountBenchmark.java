@@ -0,0 +1,49 @@
+package rewards.internal.account;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rewards.AccountContribution;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Distributing a contribution among the beneficiaries of an account, like the account of the test data with its two
+ * beneficiaries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+	private Account account;
+
+	private MonetaryAmount contribution = MonetaryAmount.valueOf("8.00");
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		account = new Account("123456789", "Keith and Keri Donald");
+		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+		account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+	}
+
+	@Benchmark
+	public AccountContribution makeContribution() {
+		return account.makeContribution(contribution);
+	}
+}
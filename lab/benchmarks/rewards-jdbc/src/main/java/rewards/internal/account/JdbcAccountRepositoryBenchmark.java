@@ -0,0 +1,66 @@
+package rewards.internal.account;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Loading and mapping an account by credit card against an embedded HSQLDB: by account id through the credit card
+ * index, and by joining the credit card table, as for a credit card that is not indexed yet. The latter includes
+ * dropping the credit card from the index before each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcAccountRepositoryBenchmark {
+
+	private static final String CREDIT_CARD_NUMBER = "1234123412341234";
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcAccountRepository repository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		repository = new JdbcAccountRepository();
+		repository.setDataSource(dataSource);
+		repository.loadCreditCardIndex();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public Account findByCreditCardIndexed() {
+		return repository.findByCreditCard(CREDIT_CARD_NUMBER);
+	}
+
+	@Benchmark
+	public Account findByCreditCardJoined() {
+		repository.invalidateCreditCard(CREDIT_CARD_NUMBER);
+		return repository.findByCreditCard(CREDIT_CARD_NUMBER);
+	}
+}
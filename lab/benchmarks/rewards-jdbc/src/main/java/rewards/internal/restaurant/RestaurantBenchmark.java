@@ -0,0 +1,49 @@
+package rewards.internal.restaurant;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rewards.Dining;
+import rewards.internal.account.Account;
+
+import common.money.MonetaryAmount;
+import common.money.Percentage;
+
+/**
+ * Calculating the benefit of a dining at a restaurant whose benefit is always available.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RestaurantBenchmark {
+
+	private Restaurant restaurant = new Restaurant("1234567890", "AppleBees");
+
+	private Account account = new Account("123456789", "Keith and Keri Donald");
+
+	private Dining dining = Dining.createDining("100.00", "1234123412341234", "1234567890");
+
+	public RestaurantBenchmark() {
+		restaurant.setBenefitPercentage(Percentage.valueOf("8%"));
+		restaurant.setBenefitAvailabilityPolicy(JdbcRestaurantRepository.AlwaysAvailable.INSTANCE);
+		account.addBeneficiary("Annabelle", Percentage.valueOf("50%"));
+		account.addBeneficiary("Corgan", Percentage.valueOf("50%"));
+	}
+
+	@Benchmark
+	public MonetaryAmount calculateBenefitFor() {
+		return restaurant.calculateBenefitFor(account, dining);
+	}
+}
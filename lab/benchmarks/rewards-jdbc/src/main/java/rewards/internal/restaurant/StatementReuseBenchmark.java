@@ -0,0 +1,107 @@
+package rewards.internal.restaurant;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Looking up a restaurant by merchant number against an embedded HSQLDB, with the statement handled in different
+ * ways: SQL and parameter types worked out by the JdbcTemplate with every call, worked out once by a
+ * PreparedStatementCreatorFactory, and one PreparedStatement prepared once on one connection, as the bound on what
+ * reusing statements can save. Also the repository itself, which maps the whole restaurant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementReuseBenchmark {
+
+	private static final String MERCHANT_NUMBER = "1234567890";
+
+	private static final String SQL = "select MERCHANT_NUMBER, NAME, BENEFIT_PERCENTAGE, BENEFIT_AVAILABILITY_POLICY from T_RESTAURANT where MERCHANT_NUMBER = ?";
+
+	private static final RowMapper<String> NAME_MAPPER = (rs, rowNum) -> rs.getString("NAME");
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private PreparedStatementCreatorFactory statementFactory;
+
+	private Connection connection;
+
+	private PreparedStatement statement;
+
+	private JdbcRestaurantRepository repository;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		statementFactory = new PreparedStatementCreatorFactory(SQL, Types.VARCHAR);
+		connection = dataSource.getConnection();
+		statement = connection.prepareStatement(SQL);
+		repository = new JdbcRestaurantRepository();
+		repository.setDataSource(dataSource);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		statement.close();
+		connection.close();
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public String inlineSql() {
+		return jdbcTemplate.queryForObject(SQL, NAME_MAPPER, MERCHANT_NUMBER);
+	}
+
+	@Benchmark
+	public String statementFactory() {
+		return DataAccessUtils.requiredSingleResult(jdbcTemplate
+				.query(statementFactory.newPreparedStatementCreator(new Object[] { MERCHANT_NUMBER }), NAME_MAPPER));
+	}
+
+	@Benchmark
+	public String preparedOnce() throws SQLException {
+		statement.setString(1, MERCHANT_NUMBER);
+		try (ResultSet rs = statement.executeQuery()) {
+			rs.next();
+			return rs.getString("NAME");
+		}
+	}
+
+	@Benchmark
+	public Restaurant repository() {
+		return repository.findByMerchantNumber(MERCHANT_NUMBER);
+	}
+}
@@ -0,0 +1,77 @@
+package rewards.internal.reward;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Compares the per-call sequence query with the block allocator, uncontended and with several threads asking for
+ * confirmation numbers at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfirmationNumberBenchmark {
+
+	private EmbeddedDatabase dataSource;
+
+	private SequenceConfirmationNumberGenerator sequenceGenerator;
+
+	private BlockConfirmationNumberGenerator blockGenerator;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder()
+			.generateUniqueName(true)
+			.addScript("/rewards/testdb/schema.sql")
+			.addScript("/rewards/testdb/data.sql")
+			.build();
+		sequenceGenerator = new SequenceConfirmationNumberGenerator(dataSource);
+		blockGenerator = new BlockConfirmationNumberGenerator(dataSource);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		blockGenerator.close();
+		dataSource.shutdown();
+	}
+
+	@Benchmark
+	public String sequence() {
+		return sequenceGenerator.nextConfirmationNumber();
+	}
+
+	@Benchmark
+	public String block() {
+		return blockGenerator.nextConfirmationNumber();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String sequenceContended() {
+		return sequenceGenerator.nextConfirmationNumber();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String blockContended() {
+		return blockGenerator.nextConfirmationNumber();
+	}
+}